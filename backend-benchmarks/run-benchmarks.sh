@@ -0,0 +1,15 @@
+#!/usr/bin/env bash
+# Builds the backend and the benchmarks, then runs JMH and writes the results as JSON to
+# results/jmh-<commit>-<time>.json. Extra arguments go to JMH, e.g. a benchmark filter:
+#   ./run-benchmarks.sh SearchBenchmark -p query=domates
+set -euo pipefail
+
+cd "$(dirname "$0")"
+mvn -B -q -f ../backend/pom.xml install -DskipTests
+mvn -B -q package
+
+mkdir -p results
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+result="results/jmh-${commit}-$(date +%Y%m%d-%H%M%S).json"
+java -jar target/benchmarks.jar -rf json -rff "$result" "$@"
+echo "Results: $result"
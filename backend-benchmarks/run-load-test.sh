@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compares the platform-thread and virtual-thread execution modes under load. For each mode the
+# backend is started on the synthetic data set (MongoDB must run locally), then the load generator
+# runs once per connection count. Results go to results/load-<commit>-<mode>-<connections>.json.
+#   ./run-load-test.sh                       # 1000 2000 5000 10000 connections
+#   ./run-load-test.sh 500 1000              # chosen connection counts
+# DURATION, WARMUP and MIX override the load generator's defaults (e.g. DURATION=PT120S).
+set -euo pipefail
+
+cd "$(dirname "$0")"
+levels=("$@")
+[ ${#levels[@]} -eq 0 ] && levels=(1000 2000 5000 10000)
+
+mvn -B -q -f ../backend/pom.xml install -DskipTests
+mvn -B -q package
+
+# One socket per connection on both ends
+ulimit -n 65536 2>/dev/null || echo "Could not raise the open file limit, high connection counts may fail"
+
+port=8081
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+mkdir -p results
+summary=()
+
+for mode in platform virtual; do
+    virtual=false
+    [ "$mode" = virtual ] && virtual=true
+    java -jar ../backend/target/pazar-backend-1.0.0-exec.jar \
+        --server.port=$port \
+        --spring.profiles.active=synthetic \
+        --spring.threads.virtual.enabled=$virtual \
+        --logging.level.org.springframework.security=INFO \
+        > "results/backend-$mode.log" 2>&1 &
+    backend=$!
+    trap 'kill $backend 2>/dev/null || true' EXIT
+
+    until curl -sf "http://localhost:$port/api/health" > /dev/null; do
+        kill -0 $backend 2>/dev/null || { echo "Backend ($mode) exited, see results/backend-$mode.log"; exit 1; }
+        sleep 1
+    done
+
+    for connections in "${levels[@]}"; do
+        result="results/load-${commit}-${mode}-${connections}.json"
+        java -cp target/benchmarks.jar com.pazar.backend.benchmark.load.LoadGenerator \
+            --url "http://localhost:$port" --connections "$connections" \
+            --duration "${DURATION:-PT60S}" --warmup "${WARMUP:-PT15S}" \
+            --mix "${MIX:-search=40,prices=25,map=15,route=15,claim=5}" \
+            --label "$mode, $connections connections" --json "$result" | tee "results/load-${mode}-${connections}.txt"
+        summary+=("$(printf '%-8s %6s  ' "$mode" "$connections")$(grep '^total' "results/load-${mode}-${connections}.txt")")
+    done
+
+    kill $backend
+    wait $backend 2>/dev/null || true
+done
+
+printf '\n%-8s %6s  %-8s %9s %9s %8s %8s %8s %8s %9s\n' mode conns op requests req/s "p50 ms" "p90 ms" "p99 ms" "p999 ms" "max ms"
+printf '%s\n' "${summary[@]}"
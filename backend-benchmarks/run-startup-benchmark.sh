@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Measures time-to-first-request of the backend: from launching the JVM until the first successful
+# answer of a real endpoint (GET /api/markets?limit=1), for the plain executable jar and for the
+# fast-start build with AOT and with AOT plus a class-data sharing archive. All variants run with
+# the prod profile against the local MongoDB. Results go to results/startup-<commit>-<time>.json.
+#   ./run-startup-benchmark.sh          # 5 runs per variant
+#   ./run-startup-benchmark.sh 10
+set -euo pipefail
+
+cd "$(dirname "$0")"
+runs=${1:-5}
+port=18081
+app=target/startup
+
+mvn -B -q -f ../backend/pom.xml -Pfast-start package -DskipTests
+(cd ../backend && ./fast-start-layout.sh "../backend-benchmarks/$app")
+main=com.pazar.backend.PazarBackendApplication
+args=(--spring.profiles.active=prod --server.port=$port --management.server.port=$((port + 1)))
+
+# Training run for the archive, as in the Dockerfile
+(cd "$app" && java -XX:ArchiveClassesAtExit=app.jsa -Dspring.aot.enabled=true -Dspring.context.exit=onRefresh \
+    @classpath.args $main "${args[@]}" > training.log 2>&1)
+
+declare -A commands=(
+    [jar]="java -jar $(pwd)/../backend/target/pazar-backend-1.0.0-exec.jar"
+    [aot]="java -Dspring.aot.enabled=true @classpath.args $main"
+    [aot-cds]="java -XX:SharedArchiveFile=app.jsa -Dspring.aot.enabled=true @classpath.args $main"
+)
+variants=(jar aot aot-cds)
+
+now() { date +%s%3N; }
+
+# Prints the milliseconds until the first 200 and the "Started ... in N seconds" time of one run
+measure() {
+    local start pid
+    start=$(now)
+    (cd "$app" && exec ${commands[$1]} "${args[@]}" > "run-$1.log" 2>&1) &
+    pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:$port/api/markets?limit=1")" = 200 ]; do
+        kill -0 $pid 2>/dev/null || { echo "Backend ($1) exited, see $app/run-$1.log" >&2; exit 1; }
+        sleep 0.02
+    done
+    local first=$(( $(now) - start ))
+    kill $pid
+    wait $pid 2>/dev/null || true
+    local started
+    started=$(sed -n 's/.*Started PazarBackendApplication in \([0-9.]*\) seconds.*/\1/p' "$app/run-$1.log")
+    echo "$first ${started:-null}"
+}
+
+declare -A firsts starts
+for variant in "${variants[@]}"; do
+    for ((i = 0; i < runs; i++)); do
+        read -r first started < <(measure "$variant")
+        firsts[$variant]+="$first "
+        starts[$variant]+="$started "
+    done
+done
+
+median() { tr ' ' '\n' | grep -v '^$' | sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+json_list() { echo "[$(echo $1 | tr ' ' ',')]"; }
+
+commit=$(git rev-parse --short HEAD 2>/dev/null || echo local)
+mkdir -p results
+result="results/startup-${commit}-$(date +%Y%m%d-%H%M%S).json"
+{
+    echo "{"
+    echo "  \"commit\": \"$commit\", \"runs\": $runs, \"unit\": \"ms\","
+    echo "  \"variants\": {"
+    for variant in "${variants[@]}"; do
+        separator=","
+        [ "$variant" = "${variants[-1]}" ] && separator=""
+        echo "    \"$variant\": { \"timeToFirstRequest\": $(json_list "${firsts[$variant]}"), \"startedSeconds\": $(json_list "${starts[$variant]}") }$separator"
+    done
+    echo "  }"
+    echo "}"
+} > "$result"
+
+printf '\n%-8s %22s %22s\n' variant "first request ms (med)" "started s (med)"
+for variant in "${variants[@]}"; do
+    printf '%-8s %22s %22s\n' "$variant" "$(echo "${firsts[$variant]}" | median)" "$(echo "${starts[$variant]}" | median)"
+done
+echo "Results: $result"
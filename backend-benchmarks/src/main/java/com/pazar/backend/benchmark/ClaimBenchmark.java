@@ -0,0 +1,149 @@
+package com.pazar.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.pazar.backend.dto.ProductRequest;
+import com.pazar.backend.dto.StallClaimRequest;
+import com.pazar.backend.dto.StallClaimResponse;
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.repository.*;
+import com.pazar.backend.service.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.repository.support.MongoRepositoryFactory;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Stall claims against a local MongoDB ({@code -Dmongo.uri}, by default the {@code pazar_bench}
+ * database on localhost, dropped at setup): {@link StallClaimService} versus the seller controller's
+ * flow before it, which saved the listing and then read the whole market and saved it back with the
+ * new stall appended to {@code map2D.stalls}. Both claim an existing product on a new stall. Latency
+ * with one thread; run with {@code -t 16} for throughput under concurrent claims.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaimBenchmark {
+
+    private static final String MARKET_ID = "market_claim_bench";
+    private static final String LEGACY_MARKET_ID = "market_claim_bench_legacy";
+    private static final String PRODUCT_ID = "prod_claim_bench";
+
+    private MongoClient client;
+    private MongoTemplate mongoTemplate;
+    private StallClaimService stallClaimService;
+    private MarketRepository marketRepository;
+    private MarketProductRepository marketProductRepository;
+    private Scheduler blockingScheduler;
+    private final AtomicLong legacyStallNumber = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        String uri = System.getProperty("mongo.uri", "mongodb://localhost:27017/pazar_bench");
+        client = MongoClients.create(uri);
+        mongoTemplate = new MongoTemplate(client, Objects.requireNonNullElse(
+                new com.mongodb.ConnectionString(uri).getDatabase(), "pazar_bench"));
+        mongoTemplate.getDb().drop();
+
+        MongoRepositoryFactory factory = new MongoRepositoryFactory(mongoTemplate);
+        marketRepository = factory.getRepository(MarketRepository.class);
+        marketProductRepository = factory.getRepository(MarketProductRepository.class);
+        ProductRepository productRepository = factory.getRepository(ProductRepository.class);
+        StallRepository stallRepository = factory.getRepository(StallRepository.class);
+
+        for (String marketId : List.of(MARKET_ID, LEGACY_MARKET_ID)) {
+            Market market = new Market(marketId, "Talep Pazarı", "İstanbul", 41.0, 29.0);
+            market.setMap2D(new HashMap<>(Map.of("width", 4000.0, "height", 4000.0)));
+            market.setLayoutVersion(1L);
+            marketRepository.save(market);
+        }
+        productRepository.save(new Product(PRODUCT_ID, "Köy Domatesi", "Sebze", "kg", "Taze"));
+
+        blockingScheduler = Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "blocking");
+        IdGenerator idGenerator = new IdGenerator(0);
+        ProductSearchIndex productSearchIndex = new ProductSearchIndex(productRepository);
+        stallClaimService = new StallClaimService(
+                mongoTemplate,
+                blockingScheduler,
+                idGenerator,
+                new StallNumberAllocator(mongoTemplate, 100),
+                new MarketStallIndex(marketRepository, stallRepository, idGenerator, blockingScheduler, 10, 12),
+                productSearchIndex,
+                new MarketPriceBook(marketProductRepository, blockingScheduler, 50_000, Duration.ofMinutes(1)),
+                new MarketStatistics(marketRepository, productRepository, marketProductRepository, stallRepository, productSearchIndex),
+                new MarketEventHub(new ObjectMapper(), 1, 256, Duration.ofHours(1)),
+                new PriceHistoryService(mongoTemplate, factory.getRepository(PriceRollupRepository.class),
+                        ZoneId.of("Europe/Istanbul"), Duration.ofDays(1), 1, 1));
+    }
+
+    /** The legacy flow appends to one ever-growing stalls array; start every iteration from an empty one. */
+    @Setup(Level.Iteration)
+    public void resetLegacyMarket() {
+        mongoTemplate.updateFirst(query(where("_id").is(LEGACY_MARKET_ID)), new Update().unset("map2D.stalls"), Market.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        blockingScheduler.dispose();
+        client.close();
+    }
+
+    @Benchmark
+    public StallClaimResponse claimService() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        StallClaimRequest request = new StallClaimRequest(MARKET_ID,
+                new ProductRequest(PRODUCT_ID, null, "Sebze", null, null),
+                new StallClaimRequest.Position(random.nextInt(4000), random.nextInt(4000), 0),
+                "Satıcı " + random.nextInt(1000), 12.5);
+        return stallClaimService.claim(request, UUID.randomUUID().toString(), "seller@pazar.com");
+    }
+
+    /** SellerController.claimStallAndAddProduct before the claim service, for an existing product. */
+    @Benchmark
+    public Market controllerFlow() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int x = random.nextInt(4000), y = random.nextInt(4000);
+        String vendorName = "Satıcı " + random.nextInt(1000);
+        String stallNumber = "S-" + legacyStallNumber.incrementAndGet();
+
+        MarketProduct listing = new MarketProduct();
+        listing.setId(UUID.randomUUID().toString());
+        listing.setMarketId(LEGACY_MARKET_ID);
+        listing.setProductId(PRODUCT_ID);
+        listing.setPrice(12.5);
+        listing.setStallNumber(stallNumber);
+        listing.setX(x);
+        listing.setY(y);
+        listing.setZ(0);
+        listing.setVendorName(vendorName);
+        marketProductRepository.save(listing);
+
+        Market market = marketRepository.findById(LEGACY_MARKET_ID).orElseThrow();
+        List<Object> stalls = market.getMap2D().get("stalls") instanceof List<?> existing
+                ? new ArrayList<>(existing) : new ArrayList<>();
+        stalls.add(new HashMap<>(Map.of("id", stallNumber, "x", x, "y", y, "z", 0, "type", "Sebze", "vendorName", vendorName)));
+        Map<String, Object> map2D = new HashMap<>(market.getMap2D());
+        map2D.put("stalls", stalls);
+        market.setMap2D(map2D);
+        return marketRepository.save(market);
+    }
+}
@@ -0,0 +1,94 @@
+package com.pazar.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.dto.MarketProductResponse;
+import com.pazar.backend.dto.MarketRequest;
+import com.pazar.backend.dto.MarketResponse;
+import com.pazar.backend.dto.ProductRequest;
+import com.pazar.backend.dto.ProductResponse;
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity/DTO conversion of products, listings and markets. The {@code convertValue} variants are the
+ * reflective {@code ObjectMapper.convertValue} mapping that the services used before the DTO records
+ * ({@code convertToMap}/{@code convertToEntity}); they are kept as the baseline the records are compared with.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DtoMappingBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private Product product;
+    private MarketProduct listing;
+    private Market market;
+    private ProductRequest productRequest;
+    private Map<String, Object> productRequestMap;
+    private MarketRequest marketRequest;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures();
+        product = fixtures.products.get(0);
+        listing = fixtures.listings.get(0);
+        market = fixtures.market;
+        productRequest = new ProductRequest(null, product.getName(), product.getCategory(), product.getUnit(), product.getFreshness());
+        productRequestMap = objectMapper.convertValue(productRequest, Map.class);
+        marketRequest = objectMapper.convertValue(MarketResponse.from(market), MarketRequest.class);
+    }
+
+    @Benchmark
+    public ProductResponse productToDto() {
+        return ProductResponse.from(product);
+    }
+
+    @Benchmark
+    public Map<?, ?> productToMapConvertValue() {
+        return objectMapper.convertValue(product, Map.class);
+    }
+
+    @Benchmark
+    public MarketProductResponse listingToDto() {
+        return MarketProductResponse.from(listing);
+    }
+
+    @Benchmark
+    public Map<?, ?> listingToMapConvertValue() {
+        return objectMapper.convertValue(listing, Map.class);
+    }
+
+    @Benchmark
+    public MarketResponse marketToDto() {
+        return MarketResponse.from(market);
+    }
+
+    @Benchmark
+    public Product productRequestToEntity() {
+        return productRequest.toEntity();
+    }
+
+    @Benchmark
+    public Product productMapToEntityConvertValue() {
+        return objectMapper.convertValue(productRequestMap, Product.class);
+    }
+
+    @Benchmark
+    public Market marketRequestToEntity() {
+        return marketRequest.toEntity();
+    }
+
+    @Benchmark
+    public byte[] serializeListingDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(MarketProductResponse.from(listing));
+    }
+}
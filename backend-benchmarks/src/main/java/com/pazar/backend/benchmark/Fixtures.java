@@ -0,0 +1,89 @@
+package com.pazar.backend.benchmark;
+
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.entity.mongo.Stall;
+
+import java.util.*;
+
+/**
+ * Deterministic data of one large market: 10 000 stalls on a 100 x 100 grid, 2 000 products and
+ * 100 000 listings (10 per stall). The same seed always produces the same data, so runs compare.
+ */
+public final class Fixtures {
+
+    public static final String MARKET_ID = "market_bench";
+    public static final int STALLS = 10_000;
+    public static final int PRODUCTS = 2_000;
+    public static final int LISTINGS_PER_STALL = 10;
+
+    private static final int STALLS_PER_ROW = 100;
+    private static final double STALL_SPACING = 40;
+    private static final double MAP_SIZE = STALLS_PER_ROW * STALL_SPACING;
+
+    private static final String[] PRODUCE = {
+            "Domates", "Salatalık", "Biber", "Patlıcan", "Kabak", "Soğan", "Patates", "Havuç", "Ispanak", "Marul",
+            "Elma", "Armut", "Portakal", "Mandalina", "Muz", "Kiraz", "Üzüm", "Karpuz", "Kavun", "Çilek"};
+    private static final String[] VARIETIES = {
+            "Köy", "Organik", "Sofralık", "Salkım", "Yerli", "İthal", "Kırmızı", "Yeşil", "Sarı", "Taze"};
+    private static final String[] REGIONS = {
+            "Ege", "Akdeniz", "Karadeniz", "Trakya", "Bursa", "Antalya", "Amasya", "Çukurova", "Malatya", "Isparta"};
+
+    public final Market market;
+    public final List<Product> products = new ArrayList<>(PRODUCTS);
+    public final List<Stall> stalls = new ArrayList<>(STALLS);
+    public final List<MarketProduct> listings = new ArrayList<>(STALLS * LISTINGS_PER_STALL);
+    public final Map<String, List<MarketProduct>> listingsByProduct = new HashMap<>();
+
+    public Fixtures() {
+        Random random = new Random(42);
+
+        for (int i = 0; i < PRODUCTS; i++) {
+            int produce = i % PRODUCE.length;
+            String name = VARIETIES[(i / PRODUCE.length) % VARIETIES.length] + " " + PRODUCE[produce]
+                    + " (" + REGIONS[(i / (PRODUCE.length * VARIETIES.length)) % REGIONS.length] + ")";
+            products.add(new Product(String.format("prod_%05d", i), name, produce < 10 ? "Sebze" : "Meyve", "kg", "Taze"));
+        }
+
+        for (int i = 0; i < STALLS; i++) {
+            double x = (i % STALLS_PER_ROW + 0.5) * STALL_SPACING;
+            double y = (i / STALLS_PER_ROW + 0.5) * STALL_SPACING;
+            stalls.add(new Stall(MARKET_ID, stallNumber(i), x, y, 0.0, i % 2 == 0 ? "Sebze" : "Meyve", "Satıcı " + i));
+        }
+
+        int id = 0;
+        for (Stall stall : stalls) {
+            for (int j = 0; j < LISTINGS_PER_STALL; j++) {
+                Product product = products.get(random.nextInt(PRODUCTS));
+                MarketProduct listing = new MarketProduct();
+                listing.setId(String.format("lst_%06d", id++));
+                listing.setMarketId(MARKET_ID);
+                listing.setProductId(product.getId());
+                listing.setPrice(Math.round((5 + random.nextDouble() * 95) * 100) / 100.0);
+                listing.setStallNumber(stall.getStallId());
+                listing.setX(stall.getX().intValue());
+                listing.setY(stall.getY().intValue());
+                listing.setZ(0);
+                listing.setVendorName(stall.getVendorName());
+                listings.add(listing);
+                listingsByProduct.computeIfAbsent(product.getId(), key -> new ArrayList<>()).add(listing);
+            }
+        }
+
+        market = new Market(MARKET_ID, "Benchmark Pazarı", "İstanbul", 41.0, 29.0);
+        market.setMap2D(Map.of(
+                "width", MAP_SIZE,
+                "height", MAP_SIZE,
+                "entrances", List.of(Map.of("x", MAP_SIZE / 2, "y", MAP_SIZE), Map.of("x", 0.0, "y", MAP_SIZE / 2))));
+        market.setMap3D(Map.of("enabled", true, "floorCount", 1, "currentFloor", 0));
+    }
+
+    public static String stallNumber(int index) {
+        return "S-" + (1000 + index);
+    }
+
+    public static double mapSize() {
+        return MAP_SIZE;
+    }
+}
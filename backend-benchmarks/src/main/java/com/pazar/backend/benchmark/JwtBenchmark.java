@@ -0,0 +1,81 @@
+package com.pazar.backend.benchmark;
+
+import com.pazar.backend.filter.JwtAuthenticationFilter;
+import com.pazar.backend.service.JwtService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bearer token handling of {@link JwtAuthenticationFilter}: full signature verification and claim parsing
+ * (verification cache disabled), the cached path for a token that was seen before, and the whole filter
+ * on a request with a cached token.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {};
+
+    private JwtService uncached;
+    private JwtService cached;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        uncached = jwtService(0);
+        cached = jwtService(10_000);
+        token = cached.generateToken("satici@pazar.com", "USER");
+
+        filter = new JwtAuthenticationFilter();
+        Stubs.inject(filter, "jwtService", cached);
+        Stubs.inject(filter, "meterRegistry", new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/seller/markets/market_1/prices");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public Optional<JwtService.VerifiedToken> verifyUncached() {
+        return uncached.verify(token);
+    }
+
+    @Benchmark
+    public Optional<JwtService.VerifiedToken> verifyCached() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public Object filterWithCachedToken() throws ServletException, IOException {
+        try {
+            filter.doFilter(request, response, NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    private static JwtService jwtService(int cacheMaxEntries) {
+        JwtService service = new JwtService();
+        Stubs.inject(service, "secret", "mySecretKeyForJWTTokenGenerationMustBeAtLeast256BitsLongForHS256Algorithm");
+        Stubs.inject(service, "expiration", 86_400_000L);
+        Stubs.inject(service, "cacheMaxEntries", cacheMaxEntries);
+        Stubs.invoke(service, "init");
+        return service;
+    }
+}
@@ -0,0 +1,95 @@
+package com.pazar.backend.benchmark;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.repository.MarketProductRepository;
+import com.pazar.backend.service.MarketPriceBook;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cheapest-listing reads and price-change writes on the in-memory price book, loaded with the 100 000
+ * listings of the fixture market (about 50 per product), against the lookup it replaced: all listings
+ * of the market, filtered to the product and sorted by price (the stub repository leaves out the cost
+ * of reading and decoding those listings from Mongo, so the baseline is a lower bound).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceBookBenchmark {
+
+    private MarketPriceBook priceBook;
+    private MarketProductRepository repository;
+    private List<MarketProduct> listings;
+    private String[] productIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures();
+        repository = Stubs.repository(MarketProductRepository.class, Map.of(
+                "findByProductIdAndMarketId", args -> fixtures.listingsByProduct.getOrDefault((String) args[0], List.of()),
+                "findByMarketId", args -> fixtures.listings));
+        priceBook = new MarketPriceBook(repository, Schedulers.immediate(), 50_000, Duration.ofHours(1));
+        listings = fixtures.listings;
+        productIds = fixtures.products.stream().map(product -> product.getId()).toArray(String[]::new);
+        for (String productId : productIds) priceBook.cheapest(Fixtures.MARKET_ID, productId); // load every book
+    }
+
+    @Benchmark
+    public Optional<MarketProduct> cheapest() {
+        next = (next + 1) % productIds.length;
+        return priceBook.cheapest(Fixtures.MARKET_ID, productIds[next]);
+    }
+
+    @Benchmark
+    public List<MarketProduct> allListings() {
+        next = (next + 1) % productIds.length;
+        return priceBook.listings(Fixtures.MARKET_ID, productIds[next]);
+    }
+
+    /** The cheapest listing as found before the price book. */
+    @Benchmark
+    public Optional<MarketProduct> cheapestBaseline() {
+        next = (next + 1) % productIds.length;
+        String productId = productIds[next];
+        return repository.findByMarketId(Fixtures.MARKET_ID).stream()
+                .filter(listing -> listing.getProductId().equals(productId))
+                .min(Comparator.comparingDouble(MarketProduct::getPrice));
+    }
+
+    /** A product's listings in a market as found before the price book. */
+    @Benchmark
+    public List<MarketProduct> allListingsBaseline() {
+        next = (next + 1) % productIds.length;
+        String productId = productIds[next];
+        return repository.findByMarketId(Fixtures.MARKET_ID).stream()
+                .filter(listing -> listing.getProductId().equals(productId))
+                .sorted(Comparator.comparingDouble(MarketProduct::getPrice))
+                .toList();
+    }
+
+    /** A seller price update: the listing is replaced by a copy with the new price. */
+    @Benchmark
+    public MarketProduct priceChange() {
+        next = (next + 1) % listings.size();
+        MarketProduct current = listings.get(next);
+        MarketProduct changed = new MarketProduct();
+        changed.setId(current.getId());
+        changed.setMarketId(current.getMarketId());
+        changed.setProductId(current.getProductId());
+        changed.setStallNumber(current.getStallNumber());
+        changed.setPrice(current.getPrice() + (next % 2 == 0 ? 0.5 : -0.5));
+        priceBook.listingAdded(changed);
+        return changed;
+    }
+}
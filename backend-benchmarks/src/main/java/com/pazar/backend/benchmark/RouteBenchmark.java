@@ -0,0 +1,89 @@
+package com.pazar.backend.benchmark;
+
+import com.pazar.backend.dto.NearbyStall;
+import com.pazar.backend.dto.RouteResponse;
+import com.pazar.backend.repository.MarketRepository;
+import com.pazar.backend.repository.StallRepository;
+import com.pazar.backend.service.IdGenerator;
+import com.pazar.backend.service.MarketRoutePlanner;
+import com.pazar.backend.service.MarketService;
+import com.pazar.backend.service.MarketStallIndex;
+import com.pazar.backend.service.StallGrid;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stall lookup and routing of {@code MarketService.getRoute} on a market with 10 000 stalls: the service
+ * call from the entrance and from a position (stall index and route planner already built, as after the
+ * first request), and the stall grid queries on their own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteBenchmark {
+
+    private static final int TARGETS = 1024;
+
+    private MarketService marketService;
+    private StallGrid grid;
+    private String[] targets;
+    private MarketRoutePlanner.Point[] positions;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Fixtures fixtures = new Fixtures();
+        MarketRepository markets = Stubs.repository(MarketRepository.class, Map.of(
+                "findById", args -> Optional.of(fixtures.market)));
+        StallRepository stalls = Stubs.repository(StallRepository.class, Map.of(
+                "findByMarketIdOrderByStallIdAsc", args -> fixtures.stalls));
+        MarketStallIndex index = new MarketStallIndex(markets, stalls, new IdGenerator(0), Schedulers.immediate(), 10, 12);
+        marketService = new MarketService(markets, null, stalls, null, null, null, null, index, null, null, 0.1, 1.0);
+
+        Random random = new Random(7);
+        targets = new String[TARGETS];
+        positions = new MarketRoutePlanner.Point[TARGETS];
+        for (int i = 0; i < TARGETS; i++) {
+            targets[i] = Fixtures.stallNumber(random.nextInt(Fixtures.STALLS));
+            positions[i] = new MarketRoutePlanner.Point(random.nextDouble() * Fixtures.mapSize(), random.nextDouble() * Fixtures.mapSize());
+        }
+        grid = index.grid(Fixtures.MARKET_ID);
+        marketService.getRoute(Fixtures.MARKET_ID, targets[0], null); // builds the planner
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & (TARGETS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public RouteResponse routeFromEntrance() {
+        return marketService.getRoute(Fixtures.MARKET_ID, targets[nextIndex()], null);
+    }
+
+    @Benchmark
+    public RouteResponse routeFromPosition() {
+        int i = nextIndex();
+        return marketService.getRoute(Fixtures.MARKET_ID, targets[i], positions[i]);
+    }
+
+    @Benchmark
+    public Optional<StallGrid.Stall> stallLookup() {
+        return grid.get(targets[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<NearbyStall> nearestFiveStalls() {
+        MarketRoutePlanner.Point position = positions[nextIndex()];
+        return marketService.findNearestStalls(Fixtures.MARKET_ID, position.x(), position.y(), 0, 5, null);
+    }
+}
@@ -0,0 +1,63 @@
+package com.pazar.backend.benchmark;
+
+import com.pazar.backend.dto.ProductSearchResponse;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.repository.ReactiveMarketProductRepository;
+import com.pazar.backend.service.ProductSearchIndex;
+import com.pazar.backend.service.ProductService;
+import org.openjdk.jmh.annotations.*;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /api/products/search}: the in-memory index lookup alone, and the full service call with and
+ * without the per-market enrichment of the hits (listings come from an in-memory repository, so only
+ * the grouping, cheapest-price selection and DTO building are measured).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SearchBenchmark {
+
+    @Param({"domates", "köy elma", "ege"})
+    public String query;
+
+    private ProductSearchIndex index;
+    private ProductService productService;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        Fixtures fixtures = new Fixtures();
+        index = new ProductSearchIndex(null);
+        fixtures.products.forEach(index::index);
+
+        ReactiveMarketProductRepository listings = Stubs.repository(ReactiveMarketProductRepository.class, Map.of(
+                "findByMarketIdAndProductIdIn", args -> Flux.fromIterable((Collection<String>) args[1])
+                        .flatMapIterable(id -> fixtures.listingsByProduct.getOrDefault(id, List.<MarketProduct>of()))));
+        productService = new ProductService(null, null, null, listings, index, null, null, null, null, null);
+    }
+
+    @Benchmark
+    public List<Product> indexSearch() {
+        return index.search(query, 50);
+    }
+
+    @Benchmark
+    public ProductSearchResponse searchWithoutMarket() {
+        return productService.searchProducts(query, null).block();
+    }
+
+    @Benchmark
+    public ProductSearchResponse searchWithMarketEnrichment() {
+        return productService.searchProducts(query, Fixtures.MARKET_ID).block();
+    }
+}
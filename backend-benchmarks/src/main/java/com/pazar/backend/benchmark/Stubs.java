@@ -0,0 +1,57 @@
+package com.pazar.backend.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.function.Function;
+
+/** In-memory stand-ins for the Spring Data repositories, so the services run without Mongo. */
+final class Stubs {
+
+    private Stubs() {}
+
+    /** A repository whose methods named in {@code answers} return the given function of their arguments; others throw. */
+    static <T> T repository(Class<T> type, Map<String, Function<Object[], Object>> answers) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) return objectMethod(self, method, args, type);
+            Function<Object[], Object> answer = answers.get(method.getName());
+            if (answer == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not stubbed");
+            }
+            return answer.apply(args != null ? args : new Object[0]);
+        });
+        return type.cast(proxy);
+    }
+
+    /** Sets a field that Spring would inject, e.g. an {@code @Value} or {@code @Autowired} one. */
+    static void inject(Object target, String field, Object value) {
+        try {
+            Field f = target.getClass().getDeclaredField(field);
+            f.setAccessible(true);
+            f.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Calls a no-argument lifecycle method such as a {@code @PostConstruct} one. */
+    static void invoke(Object target, String method) {
+        try {
+            Method m = target.getClass().getDeclaredMethod(method);
+            m.setAccessible(true);
+            m.invoke(target);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Object objectMethod(Object self, Method method, Object[] args, Class<?> type) {
+        return switch (method.getName()) {
+            case "equals" -> self == args[0];
+            case "hashCode" -> System.identityHashCode(self);
+            case "toString" -> type.getSimpleName() + " stub";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package com.pazar.backend.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Concurrent stall claims on one market of a running backend: {@code claims} claims with distinct
+ * idempotency keys, {@code concurrency} of them in flight at once, every {@code retry-every}th one sent
+ * a second time with the same key once it succeeded. Afterwards the market map must hold exactly one
+ * new stall per successful claim, under the stall numbers the claims returned, and every retry must
+ * have been answered as a replay of the same stall. Prints claim throughput and latency percentiles;
+ * exits with code 1 when a check fails.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.pazar.backend.benchmark.load.ClaimStressTest \
+ *     --url http://localhost:8081 --claims 2000 --concurrency 200
+ * </pre>
+ */
+public final class ClaimStressTest {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(2);
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8081"));
+        int claims = Integer.parseInt(options.getOrDefault("claims", "1000"));
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "100"));
+        int retryEvery = Integer.parseInt(options.getOrDefault("retry-every", "10"));
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+
+        String token = login(client, objectMapper, url,
+                options.getOrDefault("seller-email", "seller@pazar.com"), options.getOrDefault("seller-password", "123456"));
+        String marketId = options.containsKey("market") ? options.get("market")
+                : get(client, objectMapper, url, "/api/markets?limit=1").path("items").path(0).path("id").asText();
+        String productId = options.containsKey("product") ? options.get("product")
+                : get(client, objectMapper, url, "/api/products?limit=1").path("items").path(0).path("id").asText();
+        JsonNode map2D = get(client, objectMapper, url, "/api/markets/" + marketId + "/map").path("map2D");
+        Set<String> stallsBefore = stallIds(map2D);
+        int width = map2D.path("width").asInt(400), height = map2D.path("height").asInt(300);
+        System.out.printf("Market %s (%d stalls), product %s: %d claims, %d at once, every %dth retried%n",
+                marketId, stallsBefore.size(), productId, claims, concurrency, retryEvery);
+
+        Recorder latencies = new Recorder(MAX_LATENCY_NANOS, 3);
+        Map<String, String> claimed = new ConcurrentHashMap<>(); // stall number -> idempotency key
+        Map<Integer, AtomicInteger> statuses = new ConcurrentSkipListMap<>();
+        List<String> failures = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger ioErrors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(concurrency);
+        CountDownLatch done = new CountDownLatch(claims);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < claims; i++) {
+            inFlight.acquire();
+            boolean retry = retryEvery > 0 && i % retryEvery == 0;
+            executor.execute(() -> {
+                try {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    String key = UUID.randomUUID().toString();
+                    HttpRequest request = claim(objectMapper, url, token, key, Map.of(
+                            "marketId", marketId,
+                            "productData", Map.of("id", productId),
+                            "position", Map.of("x", random.nextInt(width), "y", random.nextInt(height), "z", 0),
+                            "vendorName", "Stres Testi Satıcısı " + random.nextInt(1000),
+                            "price", 10.0 + random.nextInt(90)));
+                    long sent = System.nanoTime();
+                    HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                    latencies.recordValue(Math.min(System.nanoTime() - sent, MAX_LATENCY_NANOS));
+                    statuses.computeIfAbsent(response.statusCode(), code -> new AtomicInteger()).incrementAndGet();
+                    if (response.statusCode() != 200) return;
+                    String stallNumber = objectMapper.readTree(response.body()).path("stallNumber").asText();
+                    String previous = claimed.putIfAbsent(stallNumber, key);
+                    if (previous != null) failures.add("stall " + stallNumber + " returned to two claims");
+                    if (retry) {
+                        JsonNode replay = objectMapper.readTree(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+                        if (!replay.path("replayed").asBoolean() || !stallNumber.equals(replay.path("stallNumber").asText())) {
+                            failures.add("retry of " + key + " was not a replay of stall " + stallNumber + ": " + replay);
+                        }
+                    }
+                } catch (IOException e) {
+                    ioErrors.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    inFlight.release();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+
+        Set<String> stallsAfter = stallIds(get(client, objectMapper, url, "/api/markets/" + marketId + "/map").path("map2D"));
+        Set<String> added = new HashSet<>(stallsAfter);
+        added.removeAll(stallsBefore);
+        if (added.size() != claimed.size()) {
+            failures.add(claimed.size() + " successful claims but " + added.size() + " new stalls on the map");
+        }
+        Set<String> missing = new TreeSet<>(claimed.keySet());
+        missing.removeAll(stallsAfter);
+        if (!missing.isEmpty()) failures.add(missing.size() + " claimed stalls missing from the map, e.g. " + missing.iterator().next());
+
+        Histogram histogram = latencies.getIntervalHistogram();
+        System.out.printf("%d claims in %.1f s: %.1f claims/s; p50 %.2f ms, p99 %.2f ms, max %.2f ms; statuses %s%s%n",
+                histogram.getTotalCount(), elapsed / 1e9, histogram.getTotalCount() / (elapsed / 1e9),
+                histogram.getValueAtPercentile(50) / 1e6, histogram.getValueAtPercentile(99) / 1e6, histogram.getMaxValue() / 1e6,
+                statuses, ioErrors.get() > 0 ? ", io-errors=" + ioErrors.get() : "");
+        System.out.printf("Stalls: %d before, %d after, %d claimed%n", stallsBefore.size(), stallsAfter.size(), claimed.size());
+        executor.shutdownNow();
+
+        if (failures.isEmpty()) {
+            System.out.println("OK: one stall per claim");
+        } else {
+            failures.stream().limit(20).forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+    }
+
+    private static HttpRequest claim(ObjectMapper objectMapper, URI url, String token, String key, Map<String, Object> body)
+            throws IOException {
+        return HttpRequest.newBuilder(url.resolve("/api/seller/stall/claim"))
+                .timeout(REQUEST_TIMEOUT)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + token)
+                .header("Idempotency-Key", key)
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                .build();
+    }
+
+    private static Set<String> stallIds(JsonNode map2D) {
+        Set<String> ids = new HashSet<>();
+        map2D.path("stalls").forEach(stall -> ids.add(stall.path("id").asText()));
+        return ids;
+    }
+
+    private static String login(HttpClient client, ObjectMapper objectMapper, URI url, String email, String password)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(url.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(Map.of("email", email, "password", password))))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) throw new IOException("Seller login answered " + response.statusCode());
+        return objectMapper.readTree(response.body()).path("token").asText();
+    }
+
+    private static JsonNode get(HttpClient client, ObjectMapper objectMapper, URI url, String pathAndQuery)
+            throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(url.resolve(pathAndQuery))
+                .timeout(REQUEST_TIMEOUT).GET().build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) throw new IOException("GET " + pathAndQuery + " answered " + response.statusCode());
+        return objectMapper.readTree(response.body());
+    }
+}
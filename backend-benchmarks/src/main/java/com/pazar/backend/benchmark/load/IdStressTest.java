@@ -0,0 +1,94 @@
+package com.pazar.backend.benchmark.load;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import com.pazar.backend.service.IdGenerator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel stress test for {@link IdGenerator}: {@code instances} generators stand in for backend
+ * instances and {@code threads} threads draw {@code ids} ids each from them at once. Fails (exit code 1)
+ * when two ids are equal, when a thread sees its ids go backwards, or when two instances hold the same
+ * node. With {@code --mongo} the instances lease their nodes from that database concurrently, as the
+ * backend does without {@code pazar.id.node}; otherwise they get the fixed nodes 0..instances-1.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.pazar.backend.benchmark.load.IdStressTest \
+ *     --instances 8 --threads 64 --ids 100000 --mongo mongodb://localhost:27017/pazar_bench
+ * </pre>
+ */
+public final class IdStressTest {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+        int instances = Integer.parseInt(options.getOrDefault("instances", "8"));
+        int threads = Integer.parseInt(options.getOrDefault("threads", "64"));
+        int idsPerThread = Integer.parseInt(options.getOrDefault("ids", "100000"));
+        String mongoUri = options.get("mongo");
+
+        MongoClient client = mongoUri == null ? null : MongoClients.create(mongoUri);
+        List<IdGenerator> generators = new ArrayList<>();
+        List<String> failures = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(Math.max(threads, instances))) {
+            if (client == null) {
+                for (int i = 0; i < instances; i++) generators.add(new IdGenerator(i));
+            } else {
+                MongoTemplate mongoTemplate = new MongoTemplate(client, Objects.requireNonNullElse(
+                        new ConnectionString(mongoUri).getDatabase(), "pazar_bench"));
+                List<Future<IdGenerator>> leases = new ArrayList<>();
+                for (int i = 0; i < instances; i++) {
+                    leases.add(executor.submit(() -> new IdGenerator(-1, mongoTemplate, Duration.ofMinutes(1))));
+                }
+                for (Future<IdGenerator> lease : leases) generators.add(lease.get());
+            }
+            Set<Long> nodes = new TreeSet<>();
+            generators.forEach(generator -> nodes.add(generator.node()));
+            if (nodes.size() != instances) failures.add("instances share nodes: " + nodes.size() + " distinct of " + instances);
+            System.out.printf("%d instances on nodes %s, %d threads x %d ids%n", instances, nodes, threads, idsPerThread);
+
+            long start = System.nanoTime();
+            List<Future<long[]>> batches = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                IdGenerator generator = generators.get(t % instances);
+                batches.add(executor.submit(() -> {
+                    long[] ids = new long[idsPerThread];
+                    for (int i = 0; i < ids.length; i++) ids[i] = generator.nextLong();
+                    return ids;
+                }));
+            }
+            long[] all = new long[threads * idsPerThread];
+            int backwards = 0;
+            for (int t = 0; t < threads; t++) {
+                long[] ids = batches.get(t).get();
+                for (int i = 1; i < ids.length; i++) if (ids[i] <= ids[i - 1]) backwards++;
+                System.arraycopy(ids, 0, all, t * idsPerThread, ids.length);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            Arrays.sort(all);
+            int duplicates = 0;
+            for (int i = 1; i < all.length; i++) if (all[i] == all[i - 1]) duplicates++;
+            if (duplicates > 0) failures.add(duplicates + " duplicate ids");
+            if (backwards > 0) failures.add(backwards + " ids not increasing within a thread");
+            System.out.printf("%d ids in %.1f ms, %.1f M ids/s%n", all.length, elapsed / 1e6, all.length / (elapsed / 1e3));
+        } finally {
+            generators.forEach(IdGenerator::releaseLease);
+            if (client != null) client.close();
+        }
+
+        if (failures.isEmpty()) {
+            System.out.println("OK: all ids unique");
+        } else {
+            failures.forEach(failure -> System.out.println("FAILED: " + failure));
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.pazar.backend.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pazar.backend.benchmark.load.Workload.Operation;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * HTTP load generator for a running backend: {@code connections} virtual threads, each sending one
+ * request after the other (a closed loop, so latency under overload shows up as lower throughput),
+ * with the operation of every request drawn from the traffic mix. Workers are started evenly over
+ * the warm-up, whose requests are not recorded. Prints throughput, status counts and latency
+ * percentiles per operation; {@code --json} also writes them to a file.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.pazar.backend.benchmark.load.LoadGenerator \
+ *     --url http://localhost:8081 --connections 2000 --duration PT60S --warmup PT15S \
+ *     --mix search=40,prices=25,map=15,route=15,claim=5
+ * </pre>
+ */
+public final class LoadGenerator {
+
+    private static final long MAX_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(2);
+
+    private final Workload workload;
+    private final HttpClient client;
+    private final Operation[] mix;
+    private final Map<Operation, Recorder> latencies = new EnumMap<>(Operation.class);
+    private final Map<Operation, Map<Integer, LongAdder>> statuses = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> failures = new EnumMap<>(Operation.class);
+    private volatile boolean recording;
+    private volatile boolean running = true;
+
+    private LoadGenerator(Workload workload, HttpClient client, Operation[] mix) {
+        this.workload = workload;
+        this.client = client;
+        this.mix = mix;
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new Recorder(MAX_LATENCY_NANOS, 3));
+            statuses.put(operation, new ConcurrentHashMap<>());
+            failures.put(operation, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = options(args);
+        URI url = URI.create(options.getOrDefault("url", "http://localhost:8081"));
+        int connections = Integer.parseInt(options.getOrDefault("connections", "1000"));
+        Duration duration = Duration.parse(options.getOrDefault("duration", "PT60S"));
+        Duration warmup = Duration.parse(options.getOrDefault("warmup", "PT15S"));
+        String label = options.getOrDefault("label", "");
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1) // Tomcat serves HTTP/1.1, one connection per worker
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        Workload workload = Workload.discover(client, url,
+                Integer.parseInt(options.getOrDefault("markets", "50")),
+                Integer.parseInt(options.getOrDefault("products", "1000")),
+                options.getOrDefault("seller-email", "seller@pazar.com"),
+                options.getOrDefault("seller-password", "123456"));
+        Operation[] mix = mix(options.getOrDefault("mix", "search=40,prices=25,map=15,route=15,claim=5"), workload);
+        System.out.printf("Target %s: %d markets, %d products; %d connections, warm-up %ds, measuring %ds%n",
+                url, workload.marketCount(), workload.productCount(), connections, warmup.toSeconds(), duration.toSeconds());
+
+        LoadGenerator generator = new LoadGenerator(workload, client, mix);
+        Report report = generator.run(executor, connections, warmup, duration);
+        report.print(label);
+        if (options.containsKey("json")) {
+            File file = new File(options.get("json"));
+            if (file.getParentFile() != null) file.getParentFile().mkdirs();
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report.toJson(url, connections, label));
+            System.out.println("Results: " + file);
+        }
+        executor.shutdownNow();
+        System.exit(0);
+    }
+
+    private Report run(ExecutorService executor, int connections, Duration warmup, Duration duration) throws InterruptedException {
+        long rampNanos = warmup.toNanos();
+        for (int i = 0; i < connections; i++) {
+            long delay = rampNanos * i / connections;
+            executor.execute(() -> worker(delay));
+        }
+        Thread.sleep(warmup.toMillis());
+        recording = true;
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        recording = false;
+        long elapsed = System.nanoTime() - start;
+        running = false;
+
+        Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+        latencies.forEach((operation, recorder) -> histograms.put(operation, recorder.getIntervalHistogram()));
+        return new Report(histograms, statuses, failures, elapsed);
+    }
+
+    private void worker(long startDelayNanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(startDelayNanos);
+        } catch (InterruptedException e) {
+            return;
+        }
+        while (running) {
+            Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+            HttpRequest request = workload.request(operation);
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                long latency = System.nanoTime() - start;
+                workload.observe(operation, request, response);
+                if (recording) {
+                    latencies.get(operation).recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+                    statuses.get(operation).computeIfAbsent(response.statusCode(), code -> new LongAdder()).increment();
+                }
+            } catch (IOException e) {
+                if (recording) failures.get(operation).increment(); // connect or read failure, timeout
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    /** The mix as a table of 100 slots, so drawing an operation is a single random index. */
+    private static Operation[] mix(String spec, Workload workload) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.split("=");
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase()), Integer.parseInt(pair[1].trim()));
+        }
+        if (!workload.canClaim() && weights.remove(Operation.CLAIM) != null) {
+            System.out.println("Seller login failed, claims are left out of the mix");
+        }
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        List<Operation> table = new ArrayList<>();
+        weights.forEach((operation, weight) -> {
+            for (int i = 0; i < Math.round(weight * 100.0 / total); i++) table.add(operation);
+        });
+        if (table.isEmpty()) throw new IllegalArgumentException("Empty mix: " + spec);
+        return table.toArray(Operation[]::new);
+    }
+
+    /** {@code --name value} pairs. */
+    private static Map<String, String> options(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (!args[i].startsWith("--")) throw new IllegalArgumentException("Expected --option value, got " + args[i]);
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+
+    private record Report(Map<Operation, Histogram> histograms,
+                          Map<Operation, Map<Integer, LongAdder>> statuses,
+                          Map<Operation, LongAdder> failures,
+                          long elapsedNanos) {
+
+        private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+        void print(String label) {
+            double seconds = elapsedNanos / 1e9;
+            if (!label.isEmpty()) System.out.printf("%n[%s]", label);
+            System.out.printf("%n%-8s %9s %9s %8s %8s %8s %8s %9s  %s%n",
+                    "op", "requests", "req/s", "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms", "statuses");
+            Histogram total = new Histogram(MAX_LATENCY_NANOS, 3);
+            histograms.forEach((operation, histogram) -> {
+                if (histogram.getTotalCount() == 0 && failures.get(operation).sum() == 0) return;
+                total.add(histogram);
+                printRow(operation.name().toLowerCase(), histogram, seconds, statusText(operation));
+            });
+            long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+            printRow("total", total, seconds, failed > 0 ? "io-errors=" + failed : "");
+        }
+
+        private static void printRow(String name, Histogram histogram, double seconds, String statuses) {
+            System.out.printf("%-8s %9d %9.1f %8.2f %8.2f %8.2f %8.2f %9.2f  %s%n",
+                    name, histogram.getTotalCount(), histogram.getTotalCount() / seconds,
+                    millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                    histogram.getMaxValue() / 1e6, statuses);
+        }
+
+        private String statusText(Operation operation) {
+            StringJoiner text = new StringJoiner(" ");
+            new TreeMap<>(statuses.get(operation)).forEach((status, count) -> text.add(status + "=" + count.sum()));
+            long failed = failures.get(operation).sum();
+            if (failed > 0) text.add("io-errors=" + failed);
+            return text.toString();
+        }
+
+        Map<String, Object> toJson(URI url, int connections, String label) {
+            Map<String, Object> operations = new LinkedHashMap<>();
+            histograms.forEach((operation, histogram) -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("requests", histogram.getTotalCount());
+                row.put("throughput", histogram.getTotalCount() / (elapsedNanos / 1e9));
+                for (double percentile : PERCENTILES) {
+                    row.put("p" + String.valueOf(percentile).replace(".0", "").replace(".", ""), millis(histogram, percentile));
+                }
+                row.put("max", histogram.getMaxValue() / 1e6);
+                Map<String, Long> codes = new TreeMap<>();
+                statuses.get(operation).forEach((status, count) -> codes.put(status.toString(), count.sum()));
+                row.put("statuses", codes);
+                row.put("ioErrors", failures.get(operation).sum());
+                operations.put(operation.name().toLowerCase(), row);
+            });
+            Map<String, Object> json = new LinkedHashMap<>();
+            json.put("url", url.toString());
+            json.put("label", label);
+            json.put("connections", connections);
+            json.put("seconds", elapsedNanos / 1e9);
+            json.put("latencyUnit", "ms");
+            json.put("operations", operations);
+            return json;
+        }
+
+        private static double millis(Histogram histogram, double percentile) {
+            return histogram.getValueAtPercentile(percentile) / 1e6;
+        }
+    }
+}
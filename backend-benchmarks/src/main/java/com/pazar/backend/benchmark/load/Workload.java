@@ -0,0 +1,189 @@
+package com.pazar.backend.benchmark.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The data a load test draws its requests from (markets with their stalls and map sizes, products,
+ * a seller token), read from the running backend through its public API before the test starts,
+ * and the requests of each operation of the traffic mix.
+ */
+final class Workload {
+
+    enum Operation {
+        /** Product search within a market, by a prefix of a real product name. */
+        SEARCH,
+        /** All prices of a product in a market. */
+        PRICES,
+        /** Market map; half of the clients revalidate the copy they have (If-None-Match). */
+        MAP,
+        /** Walking route to a stall from the nearest entrance. */
+        ROUTE,
+        /** A seller claiming a spot and listing a product. */
+        CLAIM
+    }
+
+    record Market(String id, List<String> stallIds, double width, double height) {}
+
+    record Product(String id, String name) {}
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final URI baseUrl;
+    private final List<Market> markets;
+    private final List<Product> products;
+    private final String sellerToken;
+    private final ObjectMapper objectMapper;
+    private final Map<String, String> mapEtags = new ConcurrentHashMap<>();
+
+    private Workload(URI baseUrl, List<Market> markets, List<Product> products, String sellerToken, ObjectMapper objectMapper) {
+        this.baseUrl = baseUrl;
+        this.markets = markets;
+        this.products = products;
+        this.sellerToken = sellerToken;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Reads up to {@code maxMarkets} markets (with their maps) and {@code maxProducts} products. */
+    static Workload discover(HttpClient client, URI baseUrl, int maxMarkets, int maxProducts,
+                             String sellerEmail, String sellerPassword) throws IOException, InterruptedException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Workload probe = new Workload(baseUrl, List.of(), List.of(), null, objectMapper);
+
+        List<Market> markets = new ArrayList<>();
+        for (JsonNode market : probe.items(client, "/api/markets", maxMarkets)) {
+            String id = market.path("id").asText();
+            JsonNode map2D = probe.get(client, "/api/markets/" + id + "/map").path("map2D");
+            List<String> stallIds = new ArrayList<>();
+            map2D.path("stalls").forEach(stall -> stallIds.add(stall.path("id").asText()));
+            if (!stallIds.isEmpty()) {
+                markets.add(new Market(id, stallIds, map2D.path("width").asDouble(400), map2D.path("height").asDouble(300)));
+            }
+        }
+        List<Product> products = new ArrayList<>();
+        for (JsonNode product : probe.items(client, "/api/products", maxProducts)) {
+            products.add(new Product(product.path("id").asText(), product.path("name").asText()));
+        }
+        if (markets.isEmpty() || products.isEmpty()) {
+            throw new IllegalStateException("No markets with stalls or no products found at " + baseUrl
+                    + "; start the backend with --spring.profiles.active=synthetic on an empty database");
+        }
+
+        String body = objectMapper.writeValueAsString(Map.of("email", sellerEmail, "password", sellerPassword));
+        HttpResponse<String> login = client.send(HttpRequest.newBuilder(baseUrl.resolve("/api/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        String token = login.statusCode() == 200 ? objectMapper.readTree(login.body()).path("token").asText(null) : null;
+        return new Workload(baseUrl, markets, products, token, objectMapper);
+    }
+
+    int marketCount() {
+        return markets.size();
+    }
+
+    int productCount() {
+        return products.size();
+    }
+
+    boolean canClaim() {
+        return sellerToken != null;
+    }
+
+    HttpRequest request(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Market market = markets.get(random.nextInt(markets.size()));
+        Product product = products.get(random.nextInt(products.size()));
+        return switch (operation) {
+            case SEARCH -> get("/api/products/search?query=" + encode(searchTerm(product.name(), random)) + "&marketId=" + market.id()).build();
+            case PRICES -> get("/api/products/" + product.id() + "/prices?marketId=" + market.id()).build();
+            case MAP -> {
+                HttpRequest.Builder request = get("/api/markets/" + market.id() + "/map").header("Accept-Encoding", "gzip");
+                String etag = mapEtags.get(market.id());
+                if (etag != null && random.nextBoolean()) request.header("If-None-Match", etag);
+                yield request.build();
+            }
+            case ROUTE -> get("/api/markets/" + market.id() + "/route/"
+                    + encode(market.stallIds().get(random.nextInt(market.stallIds().size())))).build();
+            case CLAIM -> claim(market, product, random);
+        };
+    }
+
+    /** Remembers the map's ETag, so later map requests can revalidate. */
+    void observe(Operation operation, HttpRequest request, HttpResponse<?> response) {
+        if (operation != Operation.MAP || response.statusCode() != 200) return;
+        response.headers().firstValue("ETag").ifPresent(etag -> {
+            String path = request.uri().getPath();
+            String marketId = path.substring("/api/markets/".length(), path.length() - "/map".length());
+            mapEtags.put(marketId, etag);
+        });
+    }
+
+    private HttpRequest claim(Market market, Product product, ThreadLocalRandom random) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("marketId", market.id());
+        body.put("productData", Map.of("id", product.id()));
+        body.put("position", Map.of("x", random.nextInt((int) market.width()), "y", random.nextInt((int) market.height()), "z", 0));
+        body.put("vendorName", "Yük Testi Satıcısı " + random.nextInt(1000));
+        body.put("price", Math.round((5 + random.nextDouble() * 95) * 4) / 4.0);
+        try {
+            return HttpRequest.newBuilder(baseUrl.resolve("/api/seller/stall/claim"))
+                    .timeout(REQUEST_TIMEOUT)
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + sellerToken)
+                    .header("Idempotency-Key", UUID.randomUUID().toString())
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** What people type: one word of a product name, often cut short (3 letters at least). */
+    private static String searchTerm(String name, ThreadLocalRandom random) {
+        String[] words = name.replaceAll("[()]", "").split(" ");
+        String word = words[random.nextInt(words.length)];
+        return word.length() <= 3 ? word : word.substring(0, 3 + random.nextInt(word.length() - 2));
+    }
+
+    private HttpRequest.Builder get(String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUrl.resolve(pathAndQuery)).timeout(REQUEST_TIMEOUT).GET();
+    }
+
+    /** Up to {@code max} items of a cursor-paged list, following {@code nextCursor}. */
+    private List<JsonNode> items(HttpClient client, String path, int max) throws IOException, InterruptedException {
+        List<JsonNode> items = new ArrayList<>();
+        String after = null;
+        do {
+            JsonNode page = get(client, path + "?limit=" + Math.min(max - items.size(), 500)
+                    + (after != null ? "&after=" + encode(after) : ""));
+            page.path("items").forEach(items::add);
+            after = page.path("nextCursor").asText(null);
+        } while (after != null && items.size() < max);
+        return items;
+    }
+
+    private JsonNode get(HttpClient client, String pathAndQuery) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(get(pathAndQuery).build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IOException("GET " + pathAndQuery + " answered " + response.statusCode());
+        }
+        return objectMapper.readTree(response.body());
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,21 @@
+#!/bin/sh
+# Lays out a fast-start build (mvn -Pfast-start package) for class-data sharing, which only archives
+# classes loaded from jars on the class path: the application classes (with the AOT-generated ones)
+# as app.jar, the dependencies in lib/ and a java @-file with the class path in the order of the
+# executable jar's classpath.idx.
+#   ./fast-start-layout.sh <output dir>      (in backend/, after the build)
+#   cd <output dir> && java -Dspring.aot.enabled=true @classpath.args com.pazar.backend.PazarBackendApplication
+set -eu
+
+out=$1
+backend=$(pwd)
+rm -rf "$out"
+mkdir -p "$out/lib"
+cp "$backend/target/pazar-backend-1.0.0.jar" "$out/app.jar"
+
+unpacked=$(mktemp -d)
+(cd "$unpacked" && jar xf "$backend/target/pazar-backend-1.0.0-exec.jar")
+mv "$unpacked"/BOOT-INF/lib/*.jar "$out/lib/"
+classpath=$(sed -n 's#^- "BOOT-INF/lib/\(.*\)"$#lib/\1#p' "$unpacked/BOOT-INF/classpath.idx" | tr '\n' ':')
+echo "-cp app.jar:${classpath%:}" > "$out/classpath.args"
+rm -rf "$unpacked"
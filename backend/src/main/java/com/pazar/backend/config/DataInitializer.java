@@ -3,92 +3,133 @@ package com.pazar.backend.config;
 import com.pazar.backend.entity.mongo.Market;
 import com.pazar.backend.entity.mongo.MarketProduct;
 import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.entity.mongo.Stall;
 import com.pazar.backend.repository.MarketProductRepository;
 import com.pazar.backend.repository.MarketRepository;
 import com.pazar.backend.repository.ProductRepository;
-import org.springframework.boot.CommandLineRunner;
+import com.pazar.backend.repository.StallRepository;
+import com.pazar.backend.service.IdGenerator;
+import com.pazar.backend.service.MarketStatistics;
+import com.pazar.backend.service.ProductSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
+import java.time.Instant;
 import java.util.*;
 
+/**
+ * Demo data for an empty database; the {@code synthetic} profile seeds {@link SyntheticDataGenerator}'s data instead.
+ * Runs after startup on its own thread, so neither the emptiness check nor the seeding delays the first request;
+ * turned off with {@code pazar.demo-data.enabled=false} (the {@code prod} profile does).
+ */
 @Configuration
+@Profile("!synthetic")
 public class DataInitializer {
 
     @Bean
-    CommandLineRunner initData(MarketRepository marketRepository,
-                               ProductRepository productRepository,
-                               MarketProductRepository marketProductRepository) {
-        return args -> {
-            // Check if data already exists
-            if (marketRepository.count() > 0) {
-                System.out.println("MongoDB already initialized with data.");
-                return;
-            }
-
-            System.out.println("Initializing MongoDB with demo data...");
-
-            // Initialize Markets
-            Map<String, Object> market1Map2D = Map.of(
-                "width", 400,
-                "height", 300,
-                "stalls", Arrays.asList(
-                    Map.of("id", "A-12", "x", 120, "y", 80, "z", 0, "type", "Sebze"),
-                    Map.of("id", "B-05", "x", 250, "y", 150, "z", 0, "type", "Sebze"),
-                    Map.of("id", "A-08", "x", 80, "y", 60, "z", 0, "type", "Sebze")
-                )
-            );
-            Map<String, Object> market1Map3D = Map.of(
-                "enabled", true,
-                "floorCount", 2,
-                "currentFloor", 0
-            );
-
-            Market market1 = new Market("market_1", "Merkez Pazar", "İstanbul, Kadıköy", 40.9884, 29.0232);
-            market1.setOpeningHours("08:00 - 20:00");
-            market1.setMap2D(market1Map2D);
-            market1.setMap3D(market1Map3D);
-            marketRepository.save(market1);
-
-            Map<String, Object> market2Map2D = Map.of(
-                "width", 500,
-                "height", 400,
-                "stalls", new ArrayList<>()
-            );
-            Map<String, Object> market2Map3D = Map.of(
-                "enabled", true,
-                "floorCount", 1,
-                "currentFloor", 0
-            );
-
-            Market market2 = new Market("market_2", "Şişli Pazarı", "İstanbul, Şişli", 41.0600, 28.9870);
-            market2.setOpeningHours("07:00 - 19:00");
-            market2.setMap2D(market2Map2D);
-            market2.setMap3D(market2Map3D);
-            marketRepository.save(market2);
-
-            // Initialize Products
-            Product prod1 = new Product("prod_1", "Domates", "Sebze", "kg", "Taze");
-            productRepository.save(prod1);
-
-            Product prod2 = new Product("prod_2", "Salatalık", "Sebze", "kg", "Taze");
-            productRepository.save(prod2);
-
-            Product prod3 = new Product("prod_3", "Elma", "Meyve", "kg", "Taze");
-            productRepository.save(prod3);
-
-            // Initialize Market Products
-            createMarketProduct(marketProductRepository, "market_1", "prod_1", 18.50, "A-12", 120, 80, 0, "Ahmet'in Sebzeleri");
-            createMarketProduct(marketProductRepository, "market_1", "prod_1", 20.00, "B-05", 250, 150, 0, "Mehmet Sebze");
-            createMarketProduct(marketProductRepository, "market_1", "prod_2", 15.00, "A-08", 80, 60, 0, "Taze Sebzeler");
-
-            System.out.println("MongoDB data initialization completed.");
+    ApplicationListener<ApplicationReadyEvent> initData(MarketRepository marketRepository,
+                                                        ProductRepository productRepository,
+                                                        MarketProductRepository marketProductRepository,
+                                                        StallRepository stallRepository,
+                                                        ProductSearchIndex productSearchIndex,
+                                                        MarketStatistics marketStatistics,
+                                                        IdGenerator idGenerator,
+                                                        @Value("${pazar.demo-data.enabled:true}") boolean enabled) {
+        return event -> {
+            if (!enabled) return;
+            Thread.ofVirtual().name("demo-data").start(() -> seed(marketRepository, productRepository,
+                    marketProductRepository, stallRepository, productSearchIndex, marketStatistics, idGenerator));
         };
     }
 
+    private void seed(MarketRepository marketRepository,
+                      ProductRepository productRepository,
+                      MarketProductRepository marketProductRepository,
+                      StallRepository stallRepository,
+                      ProductSearchIndex productSearchIndex,
+                      MarketStatistics marketStatistics,
+                      IdGenerator idGenerator) {
+        // Check if data already exists
+        if (marketRepository.count() > 0) {
+            System.out.println("MongoDB already initialized with data.");
+            return;
+        }
+
+        System.out.println("Initializing MongoDB with demo data...");
+
+        // Initialize Markets
+        Map<String, Object> market1Map2D = Map.of(
+            "width", 400,
+            "height", 300
+        );
+        Map<String, Object> market1Map3D = Map.of(
+            "enabled", true,
+            "floorCount", 2,
+            "currentFloor", 0
+        );
+
+        Market market1 = new Market("market_1", "Merkez Pazar", "İstanbul, Kadıköy", 40.9884, 29.0232);
+        market1.setOpeningHours("08:00 - 20:00");
+        market1.setMap2D(market1Map2D);
+        market1.setMap3D(market1Map3D);
+        market1.setLayoutVersion(idGenerator.nextLong());
+        market1.setLayoutUpdatedAt(Instant.now());
+        marketRepository.save(market1);
+
+        stallRepository.saveAll(Arrays.asList(
+            new Stall("market_1", "A-12", 120.0, 80.0, 0.0, "Sebze", null),
+            new Stall("market_1", "B-05", 250.0, 150.0, 0.0, "Sebze", null),
+            new Stall("market_1", "A-08", 80.0, 60.0, 0.0, "Sebze", null)
+        ));
+
+        Map<String, Object> market2Map2D = Map.of(
+            "width", 500,
+            "height", 400
+        );
+        Map<String, Object> market2Map3D = Map.of(
+            "enabled", true,
+            "floorCount", 1,
+            "currentFloor", 0
+        );
+
+        Market market2 = new Market("market_2", "Şişli Pazarı", "İstanbul, Şişli", 41.0600, 28.9870);
+        market2.setOpeningHours("07:00 - 19:00");
+        market2.setMap2D(market2Map2D);
+        market2.setMap3D(market2Map3D);
+        market2.setLayoutVersion(idGenerator.nextLong());
+        market2.setLayoutUpdatedAt(Instant.now());
+        marketRepository.save(market2);
+
+        // Initialize Products
+        Product prod1 = new Product("prod_1", "Domates", "Sebze", "kg", "Taze");
+        productRepository.save(prod1);
+
+        Product prod2 = new Product("prod_2", "Salatalık", "Sebze", "kg", "Taze");
+        productRepository.save(prod2);
+
+        Product prod3 = new Product("prod_3", "Elma", "Meyve", "kg", "Taze");
+        productRepository.save(prod3);
+
+        // Initialize Market Products
+        createMarketProduct(marketProductRepository, "market_1", "prod_1", 18.50, "A-12", 120, 80, 0, "Ahmet'in Sebzeleri");
+        createMarketProduct(marketProductRepository, "market_1", "prod_1", 20.00, "B-05", 250, 150, 0, "Mehmet Sebze");
+        createMarketProduct(marketProductRepository, "market_1", "prod_2", 15.00, "A-08", 80, 60, 0, "Taze Sebzeler");
+
+        // The search index and the statistics were built from the empty database at startup
+        productSearchIndex.rebuild();
+        marketStatistics.reconcile();
+
+        System.out.println("MongoDB data initialization completed.");
+    }
+
     private void createMarketProduct(MarketProductRepository repo, String marketId, String productId, 
                                      Double price, String stallNumber, int x, int y, int z, String vendorName) {
         MarketProduct mp = new MarketProduct();
+        mp.setId(UUID.randomUUID().toString()); // string ids like the service-issued ones, keep keyset paging on _id uniform
         mp.setMarketId(marketId);
         mp.setProductId(productId);
         mp.setPrice(price);
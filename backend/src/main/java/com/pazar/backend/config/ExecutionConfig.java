@@ -0,0 +1,31 @@
+package com.pazar.backend.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.Executors;
+
+/**
+ * Scheduler for the blocking repository calls made inside reactive pipelines (cache loads of the
+ * stall index and price book). It follows {@code spring.threads.virtual.enabled}: virtual threads in
+ * the virtual execution mode, Reactor's bounded-elastic pool otherwise.
+ */
+@Configuration
+public class ExecutionConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public Scheduler blockingScheduler() {
+        return Schedulers.fromExecutorService(Executors.newVirtualThreadPerTaskExecutor(), "blocking");
+    }
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public Scheduler platformBlockingScheduler() {
+        return Schedulers.boundedElastic();
+    }
+}
@@ -0,0 +1,109 @@
+package com.pazar.backend.config;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.PriceRollup;
+import com.pazar.backend.entity.mongo.Stall;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.*;
+import static com.mongodb.client.model.Sorts.ascending;
+
+/**
+ * Explains the query shape of every indexed repository query after startup and reports plans that
+ * fall back to a collection scan, so a dropped or changed index shows up before it shows up as latency.
+ *
+ * {@code pazar.index-verifier.mode}: {@code warn} (default) logs, {@code fail} shuts the application down, {@code off} skips.
+ * The probes mirror the derived queries of the repositories; full-collection streams are not listed.
+ */
+@Component
+public class IndexVerifier {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexVerifier.class);
+    private static final String PROBE = "__index_probe__";
+
+    private final MongoTemplate mongoTemplate;
+    private final String mode;
+
+    public IndexVerifier(MongoTemplate mongoTemplate, @Value("${pazar.index-verifier.mode:warn}") String mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = mode;
+    }
+
+    private record Probe(String name, Class<?> entity, Bson filter, Bson sort) {}
+
+    private static List<Probe> probes() {
+        return List.of(
+            new Probe("MarketProductRepository.findByMarketId", MarketProduct.class,
+                    eq("marketId", PROBE), null),
+            new Probe("MarketProductRepository.findByMarketIdOrderByIdAsc", MarketProduct.class,
+                    eq("marketId", PROBE), ascending("_id")),
+            new Probe("MarketProductRepository.findByMarketIdAndIdGreaterThanOrderByIdAsc", MarketProduct.class,
+                    and(eq("marketId", PROBE), gt("_id", PROBE)), ascending("_id")),
+            new Probe("MarketProductRepository.findByProductId", MarketProduct.class,
+                    eq("productId", PROBE), null),
+            new Probe("MarketProductRepository.findByProductIdAndMarketId", MarketProduct.class,
+                    and(eq("productId", PROBE), eq("marketId", PROBE)), null),
+            new Probe("MarketProductRepository.findByMarketIdAndProductIdIn", MarketProduct.class,
+                    and(eq("marketId", PROBE), in("productId", PROBE, PROBE + "2")), null),
+            new Probe("MarketProductRepository.findByMarketIdAndIdIn", MarketProduct.class,
+                    and(eq("marketId", PROBE), in("_id", PROBE, PROBE + "2")), null),
+            new Probe("MarketProductRepository.deleteByMarketIdAndProductIdAndStallNumber", MarketProduct.class,
+                    and(eq("marketId", PROBE), eq("productId", PROBE), eq("stallNumber", PROBE)), null),
+            new Probe("StallRepository.findByMarketIdOrderByStallIdAsc", Stall.class,
+                    eq("marketId", PROBE), ascending("stallId")),
+            new Probe("StallRepository.deleteByMarketIdAndStallId", Stall.class,
+                    and(eq("marketId", PROBE), eq("stallId", PROBE)), null),
+            new Probe("PriceRollupRepository.findByProductIdAndMarketIdAndDayBetweenOrderByDayAsc", PriceRollup.class,
+                    and(eq("productId", PROBE), eq("marketId", PROBE), gte("day", new Date(0)), lte("day", new Date())), ascending("day"))
+        );
+    }
+
+    /** Run by {@link StartupTasks}; throws in {@code fail} mode when a query shape scans. */
+    public void verify() {
+        if ("off".equalsIgnoreCase(mode)) return;
+
+        List<String> scans = new ArrayList<>();
+        for (Probe probe : probes()) {
+            var find = mongoTemplate.getCollection(mongoTemplate.getCollectionName(probe.entity())).find(probe.filter());
+            if (probe.sort() != null) find = find.sort(probe.sort());
+            Document plan = find.explain().get("queryPlanner", Document.class);
+            Object winningPlan = plan != null ? plan.get("winningPlan") : null;
+            if (winningPlan == null || containsStage(winningPlan, "COLLSCAN")) {
+                scans.add(probe.name());
+            }
+        }
+
+        if (scans.isEmpty()) {
+            log.info("Index verifier: all {} query shapes use an index", probes().size());
+            return;
+        }
+        String message = "Query shapes without a usable index (COLLSCAN): " + scans;
+        if ("fail".equalsIgnoreCase(mode)) throw new IllegalStateException(message);
+        log.warn(message);
+    }
+
+    /** Searches the plan tree (inputStage, inputStages, queryPlan, ...) for the given stage. */
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.get("stage"))) return true;
+            for (Object child : document.values()) {
+                if (containsStage(child, stage)) return true;
+            }
+        } else if (node instanceof List<?> list) {
+            for (Object child : list) {
+                if (containsStage(child, stage)) return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,95 @@
+package com.pazar.backend.config;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.schema.JsonSchemaObject;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Creates the unique {@code market_product_stall} index (one listing per product and stall) on
+ * {@code market_products}. It is not declared on {@link MarketProduct}: auto index creation would fail
+ * startup on a database that already holds duplicates from before the index.
+ *
+ * When the index is missing, duplicate (marketId, productId, stallNumber) groups are looked up first.
+ * {@code pazar.listing-dedup.mode}: {@code remove} (default) keeps the listing with the highest id of
+ * each group (the newest, for generated ids) and deletes the rest, logging them in full; {@code report}
+ * only logs the groups and leaves the index uncreated until they are resolved.
+ */
+@Component
+public class ListingIndexMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingIndexMigration.class);
+    private static final String INDEX = "market_product_stall";
+
+    private final MongoTemplate mongoTemplate;
+    private final String mode;
+
+    public ListingIndexMigration(MongoTemplate mongoTemplate, @Value("${pazar.listing-dedup.mode:remove}") String mode) {
+        this.mongoTemplate = mongoTemplate;
+        this.mode = mode;
+    }
+
+    /** Run by {@link StartupTasks}. */
+    public void migrate() {
+        IndexOperations indexOps = mongoTemplate.indexOps(MarketProduct.class);
+        if (indexOps.getIndexInfo().stream().anyMatch(index -> INDEX.equals(index.getName()))) return;
+
+        List<Document> groups = duplicates();
+        if (!groups.isEmpty()) {
+            if (!"remove".equalsIgnoreCase(mode)) {
+                groups.forEach(group -> log.error("Duplicate listings {} for {}", group.getList("ids", Object.class), group.get("_id")));
+                log.error("{} duplicate listing groups, index {} not created; remove them or set pazar.listing-dedup.mode=remove",
+                        groups.size(), INDEX);
+                return;
+            }
+            int removed = 0;
+            for (Document group : groups) {
+                List<Object> ids = group.getList("ids", Object.class);
+                List<Object> extra = ids.subList(0, ids.size() - 1);
+                String collection = mongoTemplate.getCollectionName(MarketProduct.class);
+                mongoTemplate.find(query(where("_id").in(extra)), Document.class, collection)
+                        .forEach(listing -> log.warn("Removing duplicate listing {}", listing.toJson()));
+                removed += (int) mongoTemplate.remove(query(where("_id").in(extra)), collection).getDeletedCount();
+            }
+            log.warn("Removed {} duplicate listings of {} (market, product, stall) groups", removed, groups.size());
+        }
+
+        try {
+            indexOps.ensureIndex(new CompoundIndexDefinition(new Document("marketId", 1).append("productId", 1).append("stallNumber", 1))
+                    .named(INDEX)
+                    .unique()
+                    .partial(PartialIndexFilter.of(where("stallNumber").type(JsonSchemaObject.Type.STRING))));
+        } catch (DuplicateKeyException e) {
+            // a duplicate written between the scan and the index build; the next start removes it
+            log.error("Index {} not created, duplicates were written meanwhile: {}", INDEX, e.getMessage());
+        }
+    }
+
+    /** (marketId, productId, stallNumber) groups with more than one listing, their ids in ascending order. */
+    private List<Document> duplicates() {
+        List<Document> pipeline = List.of(
+                new Document("$match", new Document("stallNumber", new Document("$type", "string"))),
+                new Document("$sort", new Document("_id", 1)),
+                new Document("$group", new Document("_id", new Document("marketId", "$marketId")
+                        .append("productId", "$productId").append("stallNumber", "$stallNumber"))
+                        .append("ids", new Document("$push", "$_id"))
+                        .append("count", new Document("$sum", 1))),
+                new Document("$match", new Document("count", new Document("$gt", 1))));
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(MarketProduct.class))
+                .aggregate(pipeline).allowDiskUse(true).into(new ArrayList<>());
+    }
+}
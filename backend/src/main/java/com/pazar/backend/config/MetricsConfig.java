@@ -0,0 +1,109 @@
+package com.pazar.backend.config;
+
+import com.pazar.backend.filter.BulkheadFilter;
+import com.pazar.backend.service.CacheStatistics;
+import com.pazar.backend.service.JwtService;
+import com.pazar.backend.service.MarketEventHub;
+import com.pazar.backend.service.MarketMapCache;
+import com.pazar.backend.service.MarketPriceBook;
+import com.pazar.backend.service.MarketStallIndex;
+import com.pazar.backend.service.PriceHistoryService;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+
+import java.util.Map;
+
+/**
+ * Application metrics on top of Actuator's: Mongo command timings per repository method, hit and
+ * miss counts of the in-memory caches, free bulkhead permits, live event subscribers and the price
+ * history queue. Scraped from the management port ({@code /actuator/prometheus}).
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MongoCommandMetrics mongoCommandMetrics(MeterRegistry registry) {
+        return new MongoCommandMetrics(registry);
+    }
+
+    /** Applies to the blocking and the reactive Mongo client alike. */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoCommandMetricsCustomizer(MongoCommandMetrics mongoCommandMetrics) {
+        return builder -> builder.addCommandListener(mongoCommandMetrics).contextProvider(mongoCommandMetrics);
+    }
+
+    /** Adds the method-labelling interceptor to every repository proxy; static, as bean post-processors must be created early. */
+    @Bean
+    public static BeanPostProcessor repositoryMethodMetrics() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessBeforeInitialization(Object bean, String beanName) {
+                if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+                    factoryBean.addRepositoryFactoryCustomizer(factory -> factory.addRepositoryProxyPostProcessor(
+                            (proxyFactory, information) -> proxyFactory.addAdvice(
+                                    MongoCommandMetrics.repositoryMethodInterceptor(information.getRepositoryInterface()))));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder cacheMetrics(JwtService jwtService,
+                                    MarketPriceBook marketPriceBook,
+                                    MarketStallIndex marketStallIndex,
+                                    MarketMapCache marketMapCache) {
+        Map<String, CacheStatistics> caches = Map.of(
+                "jwt.verified-tokens", jwtService.getCacheStatistics(),
+                "market.price-book", marketPriceBook.getCacheStatistics(),
+                "market.stall-index", marketStallIndex.getCacheStatistics(),
+                "market.map", marketMapCache.getCacheStatistics());
+        return registry -> caches.forEach((name, statistics) -> {
+            FunctionCounter.builder("cache.gets", statistics, CacheStatistics::hits)
+                    .description("Cache lookups answered from memory")
+                    .tags("cache", name, "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", statistics, CacheStatistics::misses)
+                    .description("Cache lookups that had to load")
+                    .tags("cache", name, "result", "miss")
+                    .register(registry);
+            Gauge.builder("cache.size", statistics, CacheStatistics::size)
+                    .description("Entries currently cached")
+                    .tags("cache", name)
+                    .register(registry);
+        });
+    }
+
+    @Bean
+    public MeterBinder loadMetrics(BulkheadFilter bulkheadFilter,
+                                   MarketEventHub marketEventHub,
+                                   PriceHistoryService priceHistoryService) {
+        return registry -> {
+            for (BulkheadFilter.Group group : BulkheadFilter.Group.values()) {
+                Gauge.builder("pazar.bulkhead.available", bulkheadFilter, filter -> filter.available(group))
+                        .description("Free permits of an endpoint group's bulkhead")
+                        .tags("group", group.name().toLowerCase())
+                        .register(registry);
+            }
+            Gauge.builder("pazar.events.subscribers", marketEventHub, MarketEventHub::getSubscriberCount)
+                    .description("Open market event streams")
+                    .register(registry);
+            Gauge.builder("pazar.price-history.pending", priceHistoryService, PriceHistoryService::getPendingCount)
+                    .description("Price ticks waiting for the next flush")
+                    .register(registry);
+            FunctionCounter.builder("pazar.price-history.dropped", priceHistoryService, PriceHistoryService::getDroppedCount)
+                    .description("Price ticks lost to a full queue or a failed write")
+                    .register(registry);
+            FunctionCounter.builder("pazar.price-history.rollups-failed", priceHistoryService, PriceHistoryService::getRollupsFailedCount)
+                    .description("Rollup updates given up, after their retries or a write that failed as a whole; their ticks were written")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,189 @@
+package com.pazar.backend.config;
+
+import com.mongodb.RequestContext;
+import com.mongodb.client.SynchronousContextProvider;
+import com.mongodb.event.CommandEvent;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.reactivestreams.client.ReactiveContextProvider;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.reactivestreams.Subscriber;
+import reactor.core.CoreSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Times every Mongo command and counts the documents it returned or wrote, tagged with the command,
+ * the collection and the repository method that issued it ({@code MarketProductRepository.findByProductIdAndMarketId},
+ * or {@code none} for direct template calls).
+ *
+ * The repository method travels to the driver in its request context: {@link #repositoryMethodInterceptor}
+ * records it around each repository call (in a thread local for blocking repositories, in the Reactor
+ * context for reactive ones), and the context provider hands it to the driver, which passes it back
+ * with every command event. Registered on both the blocking and the reactive client.
+ */
+public class MongoCommandMetrics implements CommandListener, SynchronousContextProvider, ReactiveContextProvider {
+
+    static final String COMMANDS = "mongodb.commands";
+    static final String DOCUMENTS = "mongodb.commands.documents";
+
+    private static final String METHOD_KEY = MongoCommandMetrics.class.getName() + ".method";
+    private static final String NONE = "none";
+    private static final ThreadLocal<String> CURRENT_METHOD = new ThreadLocal<>();
+
+    private record Started(String command, String collection, String method) {}
+
+    private final MeterRegistry registry;
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+
+    public MongoCommandMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Labels the commands issued by a repository method with {@code Interface.method}. */
+    static MethodInterceptor repositoryMethodInterceptor(Class<?> repositoryInterface) {
+        return invocation -> {
+            String method = repositoryInterface.getSimpleName() + "." + invocation.getMethod().getName();
+            String outer = CURRENT_METHOD.get();
+            CURRENT_METHOD.set(method);
+            try {
+                Object result = invocation.proceed();
+                // Reactive commands run on subscription, after this call has returned
+                if (result instanceof Mono<?> mono) return mono.contextWrite(context -> context.put(METHOD_KEY, method));
+                if (result instanceof Flux<?> flux) return flux.contextWrite(context -> context.put(METHOD_KEY, method));
+                return result;
+            } finally {
+                if (outer != null) CURRENT_METHOD.set(outer);
+                else CURRENT_METHOD.remove();
+            }
+        };
+    }
+
+    @Override
+    public RequestContext getContext() {
+        String method = CURRENT_METHOD.get();
+        return method != null ? new MethodContext(method) : null;
+    }
+
+    @Override
+    public RequestContext getContext(Subscriber<?> subscriber) {
+        if (subscriber instanceof CoreSubscriber<?> core) {
+            String method = core.currentContext().getOrDefault(METHOD_KEY, null);
+            if (method != null) return new MethodContext(method);
+        }
+        return null;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        BsonDocument command = event.getCommand();
+        inFlight.put(event.getRequestId(), new Started(event.getCommandName(), collection(event.getCommandName(), command), method(event)));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+        record(started, "success", event.getElapsedTime(TimeUnit.NANOSECONDS));
+        DistributionSummary.builder(DOCUMENTS)
+                .description("Documents returned or written by a Mongo command")
+                .tags("command", started.command(), "collection", started.collection(), "method", started.method())
+                .register(registry)
+                .record(documents(event.getResponse()));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+        record(started, "failure", event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    private void record(Started started, String status, long nanos) {
+        Timer.builder(COMMANDS)
+                .description("Mongo command latency")
+                .tags("command", started.command(), "collection", started.collection(), "method", started.method(), "status", status)
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String method(CommandEvent event) {
+        RequestContext context = event.getRequestContext();
+        return context != null ? context.getOrDefault(METHOD_KEY, NONE) : NONE;
+    }
+
+    private static String collection(String commandName, BsonDocument command) {
+        BsonValue value = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+        return value != null && value.isString() ? value.asString().getValue() : NONE;
+    }
+
+    /** Size of the first or next cursor batch for reads, {@code n} for writes and counts. */
+    private static int documents(BsonDocument response) {
+        if (response == null) return 0;
+        BsonDocument cursor = response.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray batch = cursor.getArray("firstBatch", cursor.getArray("nextBatch", null));
+            return batch != null ? batch.size() : 0;
+        }
+        BsonValue n = response.get("n");
+        return n != null && n.isNumber() ? n.asNumber().intValue() : 0;
+    }
+
+    /** A request context holding just the repository method. */
+    private static final class MethodContext implements RequestContext {
+        private final Map<Object, Object> values = new ConcurrentHashMap<>(2);
+
+        MethodContext(String method) {
+            values.put(METHOD_KEY, method);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key) {
+            return (T) values.get(key);
+        }
+
+        @Override
+        public boolean hasKey(Object key) {
+            return values.containsKey(key);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return values.isEmpty();
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            values.put(key, value);
+        }
+
+        @Override
+        public void delete(Object key) {
+            values.remove(key);
+        }
+
+        @Override
+        public int size() {
+            return values.size();
+        }
+
+        @Override
+        public Stream<Map.Entry<Object, Object>> stream() {
+            return values.entrySet().stream();
+        }
+    }
+}
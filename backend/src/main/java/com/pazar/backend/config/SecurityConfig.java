@@ -2,6 +2,7 @@ package com.pazar.backend.config;
 
 import com.pazar.backend.filter.JwtAuthenticationFilter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -34,11 +35,14 @@ public class SecurityConfig {
             .authorizeHttpRequests(auth -> auth
                 // Public endpoints
                 .requestMatchers("/api/health", "/swagger-ui/**", "/v3/api-docs/**", "/h2-console/**").permitAll()
+                // Actuator is served on the management port only, which is bound to localhost
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).permitAll()
                 .requestMatchers("/api/auth/**").permitAll()
                 // Public read-only endpoints (herkes görebilir)
                 .requestMatchers("/api/products/search", "/api/products", "/api/products/{productId}/prices", 
-                               "/api/products/category/**", "/api/markets", "/api/markets/{marketId}", 
-                               "/api/markets/{marketId}/map", "/api/markets/{marketId}/route/**").permitAll()
+                               "/api/products/{productId}/price-history", "/api/products/category/**", "/api/markets", "/api/markets/{marketId}", 
+                               "/api/markets/{marketId}/map", "/api/markets/{marketId}/events", "/api/markets/{marketId}/route/**",
+                               "/api/markets/{marketId}/products", "/api/markets/{marketId}/stalls/**").permitAll()
                 // User endpoints - authenticated users (USER veya ADMIN)
                 .requestMatchers("/api/products/{productId}/cheapest").hasAnyRole("USER", "ADMIN")
                 // Admin endpoints - only ADMIN role
@@ -0,0 +1,103 @@
+package com.pazar.backend.config;
+
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.service.MarketStallIndex;
+import com.pazar.backend.service.MarketStatistics;
+import com.pazar.backend.service.StallNumberAllocator;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Moves stalls still embedded in {@code markets.map2D.stalls} into the {@code stalls} collection.
+ *
+ * Runs while the application serves traffic; until a market is migrated the read side merges its
+ * embedded stalls in. Each stall is upserted with $setOnInsert, so a stall already stored (e.g. added
+ * through the new API meanwhile) is never overwritten, and only the exact array elements that were
+ * copied are $pulled from the market afterwards. Re-running is harmless. An embedded stall without an id
+ * is given a fresh stall number first, so it is migrated like the others instead of being lost.
+ */
+@Component
+public class StallMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(StallMigration.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final MarketStallIndex marketStallIndex;
+    private final StallNumberAllocator stallNumberAllocator;
+
+    public StallMigration(MongoTemplate mongoTemplate, MarketStallIndex marketStallIndex,
+                          StallNumberAllocator stallNumberAllocator) {
+        this.mongoTemplate = mongoTemplate;
+        this.marketStallIndex = marketStallIndex;
+        this.stallNumberAllocator = stallNumberAllocator;
+    }
+
+    /** Run by {@link StartupTasks} before {@link MarketStatistics#reconcile()}, which counts stalls from the collection only. */
+    public void migrate() {
+        Query legacy = query(where("map2D.stalls.0").exists(true));
+        legacy.fields().include("_id").include("map2D.stalls");
+
+        int markets = 0, stalls = 0;
+        try (Stream<Document> documents = mongoTemplate.stream(legacy, Document.class, mongoTemplate.getCollectionName(Market.class))) {
+            for (Document market : (Iterable<Document>) documents::iterator) {
+                stalls += migrate(market);
+                markets++;
+            }
+        }
+        if (markets > 0) log.info("Migrated {} embedded stalls of {} markets into the stalls collection", stalls, markets);
+    }
+
+    private int migrate(Document market) {
+        String marketId = market.get("_id").toString();
+        List<Document> embedded = market.get("map2D", Document.class).getList("stalls", Document.class);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Stall.class);
+        List<Document> copied = new ArrayList<>();
+        boolean numbered = false;
+        for (Document raw : embedded) {
+            Stall stall = Stall.fromMap(marketId, raw);
+            if (stall == null) {
+                String stallNumber = stallNumberAllocator.next(marketId);
+                log.warn("Embedded stall without id in market {} migrated as {}: {}", marketId, stallNumber, raw.toJson());
+                stall = Stall.fromMap(marketId, new Document(raw).append("id", stallNumber));
+                numbered = true;
+            }
+            Update insert = new Update()
+                    .setOnInsert("marketId", marketId)
+                    .setOnInsert("stallId", stall.getStallId())
+                    .setOnInsert("x", stall.getX())
+                    .setOnInsert("y", stall.getY())
+                    .setOnInsert("z", stall.getZ())
+                    .setOnInsert("type", stall.getType())
+                    .setOnInsert("vendorName", stall.getVendorName());
+            bulk.upsert(query(where("_id").is(stall.getId())), insert);
+            copied.add(raw);
+        }
+        if (copied.isEmpty()) return 0;
+        bulk.execute();
+
+        String collection = mongoTemplate.getCollectionName(Market.class);
+        mongoTemplate.updateFirst(query(where("_id").is(marketId)),
+                new Update().pullAll("map2D.stalls", copied.toArray()), collection);
+        mongoTemplate.updateFirst(query(where("_id").is(marketId).and("map2D.stalls").size(0)),
+                new Update().unset("map2D.stalls"), collection);
+        // a newly numbered stall appears on the map, so cached maps must not revalidate as unchanged
+        if (numbered) marketStallIndex.layoutChanged(marketId);
+        else marketStallIndex.invalidate(marketId);
+        return copied.size();
+    }
+}
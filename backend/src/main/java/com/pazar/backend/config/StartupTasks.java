@@ -0,0 +1,90 @@
+package com.pazar.backend.config;
+
+import com.pazar.backend.service.MarketMapCache;
+import com.pazar.backend.service.MarketStatistics;
+import com.pazar.backend.service.ProductSearchIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * The startup work that scans collections, run after startup on one virtual thread so none of it
+ * delays the first request: stall migration (first, the statistics count stalls from the collection
+ * only), the unique listing index, missing layout versions, the search index, the statistics and the
+ * index check. Until they are done the health endpoint reports OUT_OF_SERVICE; searches answer from
+ * an empty index and the dashboard shows zeros meanwhile. A task that fails is logged and the others
+ * still run, except for an index check in {@code fail} mode, which shuts the application down.
+ */
+@Component
+public class StartupTasks implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupTasks.class);
+
+    private final StallMigration stallMigration;
+    private final ListingIndexMigration listingIndexMigration;
+    private final MarketMapCache marketMapCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final MarketStatistics marketStatistics;
+    private final IndexVerifier indexVerifier;
+    private final ConfigurableApplicationContext context;
+    private volatile boolean done;
+
+    public StartupTasks(StallMigration stallMigration,
+                        ListingIndexMigration listingIndexMigration,
+                        MarketMapCache marketMapCache,
+                        ProductSearchIndex productSearchIndex,
+                        MarketStatistics marketStatistics,
+                        IndexVerifier indexVerifier,
+                        ConfigurableApplicationContext context) {
+        this.stallMigration = stallMigration;
+        this.listingIndexMigration = listingIndexMigration;
+        this.marketMapCache = marketMapCache;
+        this.productSearchIndex = productSearchIndex;
+        this.marketStatistics = marketStatistics;
+        this.indexVerifier = indexVerifier;
+        this.context = context;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("startup-tasks").start(this::runAll);
+    }
+
+    @Override
+    public Health health() {
+        return done ? Health.up().build() : Health.outOfService().withDetail("startupTasks", "running").build();
+    }
+
+    private void runAll() {
+        long start = System.nanoTime();
+        run("stall migration", stallMigration::migrate);
+        run("listing index", listingIndexMigration::migrate);
+        run("layout versions", marketMapCache::assignMissingVersions);
+        run("search index", productSearchIndex::rebuild);
+        run("statistics", marketStatistics::reconcile);
+        try {
+            indexVerifier.verify();
+        } catch (IllegalStateException e) {
+            log.error("Index check failed, shutting down: {}", e.getMessage());
+            System.exit(SpringApplication.exit(context, () -> 1));
+        } catch (RuntimeException e) {
+            log.error("Startup task 'index check' failed", e);
+        }
+        done = true;
+        log.info("Startup tasks finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private static void run(String name, Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            log.error("Startup task '{}' failed", name, e);
+        }
+    }
+}
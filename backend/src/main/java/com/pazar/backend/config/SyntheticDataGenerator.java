@@ -0,0 +1,304 @@
+package com.pazar.backend.config;
+
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.service.IdGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Seeds a large synthetic data set instead of {@link DataInitializer}'s demo data when the
+ * {@code synthetic} profile is active: N markets with K stalls each, M products and about L listings
+ * spread over the stalls. Names, prices and layouts are drawn from a seeded random, so the same
+ * settings always produce the same data.
+ *
+ * Everything is written with unordered bulk inserts of {@code batch-size} documents; listings are
+ * generated market by market, so memory stays bounded by the products and one batch. Runs before
+ * {@link StartupTasks}, so the search index and statistics are built from the new data.
+ */
+@Component
+@Profile("synthetic")
+public class SyntheticDataGenerator implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SyntheticDataGenerator.class);
+
+    /** A produce with its category, unit and typical price in TL per unit. */
+    private record Produce(String name, String category, String unit, double basePrice) {}
+
+    private static final List<Produce> PRODUCE = List.of(
+            new Produce("Domates", "Sebze", "kg", 28), new Produce("Salatalık", "Sebze", "kg", 22),
+            new Produce("Biber", "Sebze", "kg", 35), new Produce("Patlıcan", "Sebze", "kg", 30),
+            new Produce("Kabak", "Sebze", "kg", 20), new Produce("Soğan", "Sebze", "kg", 12),
+            new Produce("Patates", "Sebze", "kg", 15), new Produce("Havuç", "Sebze", "kg", 14),
+            new Produce("Ispanak", "Sebze", "kg", 25), new Produce("Marul", "Sebze", "adet", 15),
+            new Produce("Pırasa", "Sebze", "kg", 18), new Produce("Fasulye", "Sebze", "kg", 55),
+            new Produce("Karnabahar", "Sebze", "adet", 30), new Produce("Brokoli", "Sebze", "kg", 45),
+            new Produce("Elma", "Meyve", "kg", 25), new Produce("Armut", "Meyve", "kg", 35),
+            new Produce("Portakal", "Meyve", "kg", 20), new Produce("Mandalina", "Meyve", "kg", 22),
+            new Produce("Muz", "Meyve", "kg", 60), new Produce("Kiraz", "Meyve", "kg", 90),
+            new Produce("Üzüm", "Meyve", "kg", 45), new Produce("Karpuz", "Meyve", "kg", 10),
+            new Produce("Kavun", "Meyve", "kg", 18), new Produce("Çilek", "Meyve", "kg", 80),
+            new Produce("Şeftali", "Meyve", "kg", 50), new Produce("Nar", "Meyve", "kg", 40),
+            new Produce("İncir", "Meyve", "kg", 85), new Produce("Ayva", "Meyve", "kg", 35),
+            new Produce("Mercimek", "Bakliyat", "kg", 55), new Produce("Nohut", "Bakliyat", "kg", 60),
+            new Produce("Kuru Fasulye", "Bakliyat", "kg", 75), new Produce("Bulgur", "Bakliyat", "kg", 40),
+            new Produce("Pirinç", "Bakliyat", "kg", 65), new Produce("Pul Biber", "Baharat", "kg", 250),
+            new Produce("Kekik", "Baharat", "kg", 300), new Produce("Nane", "Baharat", "demet", 10),
+            new Produce("Maydanoz", "Baharat", "demet", 10), new Produce("Dereotu", "Baharat", "demet", 10),
+            new Produce("Beyaz Peynir", "Süt Ürünleri", "kg", 220), new Produce("Kaşar", "Süt Ürünleri", "kg", 320),
+            new Produce("Tereyağı", "Süt Ürünleri", "kg", 400), new Produce("Yoğurt", "Süt Ürünleri", "kg", 60),
+            new Produce("Yumurta", "Süt Ürünleri", "adet", 4), new Produce("Ceviz", "Kuruyemiş", "kg", 350),
+            new Produce("Fındık", "Kuruyemiş", "kg", 400), new Produce("Kuru Kayısı", "Kuruyemiş", "kg", 280),
+            new Produce("Zeytin", "Kuruyemiş", "kg", 180), new Produce("Bal", "Kuruyemiş", "kg", 450));
+    /** Variety adjectives with their price factor. */
+    private static final String[] VARIETIES = {"Köy", "Organik", "Sofralık", "Yerli", "İthal", "Taze", "Ekstra", "Salkım", "Dökme", "Seçme"};
+    private static final double[] VARIETY_FACTORS = {1.3, 1.6, 1.0, 1.0, 1.4, 1.1, 1.5, 1.2, 0.8, 1.25};
+    private static final String[] REGIONS = {
+            "Ege", "Akdeniz", "Karadeniz", "Trakya", "Bursa", "Antalya", "Amasya", "Çukurova", "Malatya", "Isparta",
+            "Ayvalık", "Giresun", "Kayseri", "Konya", "Mersin", "Tokat", "Erzincan", "Aydın", "Manisa", "Hatay"};
+    private static final String[] FRESHNESS = {"Taze", "Günlük", "Bu sabah toplandı", "Dalından"};
+
+    /** City and district centres the markets are scattered around. */
+    private record Place(String city, String district, double latitude, double longitude) {}
+
+    private static final List<Place> PLACES = List.of(
+            new Place("İstanbul", "Kadıköy", 40.9884, 29.0232), new Place("İstanbul", "Şişli", 41.0600, 28.9870),
+            new Place("İstanbul", "Beşiktaş", 41.0430, 29.0070), new Place("İstanbul", "Fatih", 41.0190, 28.9400),
+            new Place("İstanbul", "Üsküdar", 41.0260, 29.0150), new Place("Ankara", "Çankaya", 39.9080, 32.8620),
+            new Place("Ankara", "Keçiören", 39.9800, 32.8630), new Place("İzmir", "Karşıyaka", 38.4600, 27.1100),
+            new Place("İzmir", "Bornova", 38.4700, 27.2200), new Place("Bursa", "Nilüfer", 40.2150, 28.9400),
+            new Place("Antalya", "Muratpaşa", 36.8840, 30.7050), new Place("Adana", "Seyhan", 36.9900, 35.3200),
+            new Place("Konya", "Selçuklu", 37.9400, 32.4900), new Place("Eskişehir", "Tepebaşı", 39.7900, 30.5000),
+            new Place("Trabzon", "Ortahisar", 41.0030, 39.7200));
+    private static final String[] DAYS = {"Pazartesi", "Salı", "Çarşamba", "Perşembe", "Cuma", "Cumartesi", "Pazar"};
+    private static final String[] FIRST_NAMES = {
+            "Ahmet", "Mehmet", "Ayşe", "Fatma", "Mustafa", "Emine", "Ali", "Hatice", "Hüseyin", "Zeynep",
+            "Hasan", "Elif", "İbrahim", "Meryem", "Osman", "Şerife", "Yusuf", "Sultan", "Murat", "Hacer"};
+    private static final String[] VENDOR_SUFFIXES = {" Usta", " Sebze Meyve", " Köy Ürünleri", " Manav", " ve Oğulları"};
+
+    private static final double STALL_SPACING = 20;
+    private static final int STALLS_PER_AISLE = 25;
+    private static final double AISLE_WIDTH = 15;
+
+    private final MongoTemplate mongoTemplate;
+    private final IdGenerator idGenerator;
+    private final int marketCount;
+    private final int productCount;
+    private final int stallsPerMarket;
+    private final long listingCount;
+    private final int batchSize;
+    private final long seed;
+    private final boolean replace;
+
+    public SyntheticDataGenerator(MongoTemplate mongoTemplate,
+                                  IdGenerator idGenerator,
+                                  @Value("${pazar.synthetic.markets:20}") int marketCount,
+                                  @Value("${pazar.synthetic.products:2000}") int productCount,
+                                  @Value("${pazar.synthetic.stalls-per-market:500}") int stallsPerMarket,
+                                  @Value("${pazar.synthetic.listings:200000}") long listingCount,
+                                  @Value("${pazar.synthetic.batch-size:5000}") int batchSize,
+                                  @Value("${pazar.synthetic.seed:42}") long seed,
+                                  @Value("${pazar.synthetic.replace:false}") boolean replace) {
+        this.mongoTemplate = mongoTemplate;
+        this.idGenerator = idGenerator;
+        this.marketCount = marketCount;
+        this.productCount = productCount;
+        this.stallsPerMarket = stallsPerMarket;
+        this.listingCount = listingCount;
+        this.batchSize = batchSize;
+        this.seed = seed;
+        this.replace = replace;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (replace) {
+            for (Class<?> type : List.of(MarketProduct.class, Stall.class, Product.class, Market.class)) {
+                mongoTemplate.remove(new Query(), type);
+            }
+        } else if (mongoTemplate.estimatedCount(Market.class) > 0) {
+            log.info("Synthetic data skipped: markets already exist (set pazar.synthetic.replace=true to regenerate)");
+            return;
+        }
+
+        long start = System.nanoTime();
+        Random random = new Random(seed);
+        Map<String, Double> basePrices = new HashMap<>();
+        List<Product> products = products(random, basePrices);
+        insert(products, Product.class);
+
+        Map<String, List<Product>> byCategory = new HashMap<>();
+        products.forEach(product -> byCategory.computeIfAbsent(product.getCategory(), key -> new ArrayList<>()).add(product));
+
+        Batch<Stall> stalls = new Batch<>(Stall.class);
+        Batch<MarketProduct> listings = new Batch<>(MarketProduct.class);
+        List<Market> markets = new ArrayList<>(marketCount);
+        long listingsLeft = listingCount;
+        for (int m = 0; m < marketCount; m++) {
+            Market market = market(m, random);
+            markets.add(market);
+            // Listings of this market, spread evenly over its stalls
+            long marketListings = listingsLeft / (marketCount - m);
+            listingsLeft -= marketListings;
+            for (int s = 0; s < stallsPerMarket; s++) {
+                Stall stall = stall(market.getId(), s, random);
+                stalls.add(stall);
+                long perStall = marketListings / (stallsPerMarket - s);
+                marketListings -= perStall;
+                for (Product product : assortment(stall.getType(), (int) Math.min(perStall, productCount), byCategory, products, random)) {
+                    listings.add(listing(market.getId(), stall, product, basePrices.get(product.getId()), random));
+                }
+            }
+        }
+        insert(markets, Market.class);
+        stalls.flush();
+        listings.flush();
+
+        log.info("Synthetic data: {} markets, {} products, {} stalls, {} listings in {} ms",
+                markets.size(), products.size(), stalls.written, listings.written, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Plain produce names first, then each produce with every variety, then variety and region
+     * combinations; a grade is appended once a name repeats. {@code basePrices} receives the typical
+     * price of each product: its produce's price scaled by the variety.
+     */
+    private List<Product> products(Random random, Map<String, Double> basePrices) {
+        List<Product> products = new ArrayList<>(productCount);
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < productCount; i++) {
+            Produce produce = PRODUCE.get(i % PRODUCE.size());
+            int round = i / PRODUCE.size();
+            int variety = round == 0 ? -1 : round <= VARIETIES.length ? round - 1 : random.nextInt(VARIETIES.length);
+            String name = variety < 0 ? produce.name() : VARIETIES[variety] + " " + produce.name();
+            if (round > VARIETIES.length) name += " (" + REGIONS[random.nextInt(REGIONS.length)] + ")";
+            String unique = name;
+            for (int grade = 2; !names.add(unique); grade++) unique = name + " " + grade + ". Sınıf";
+
+            Product product = new Product(idGenerator.nextId("prod_"), unique, produce.category(), produce.unit(),
+                    FRESHNESS[random.nextInt(FRESHNESS.length)]);
+            products.add(product);
+            double factor = variety < 0 ? 1.0 : VARIETY_FACTORS[variety];
+            basePrices.put(product.getId(), produce.basePrice() * factor * (0.9 + random.nextDouble() * 0.2));
+        }
+        return products;
+    }
+
+    private Market market(int index, Random random) {
+        Place place = PLACES.get(index % PLACES.size());
+        String day = DAYS[random.nextInt(DAYS.length)];
+        String name = place.district() + " " + day + " Pazarı" + (index >= PLACES.size() ? " " + (index / PLACES.size() + 1) : "");
+        Market market = new Market(idGenerator.nextId("market_"), name, place.city() + ", " + place.district(),
+                place.latitude() + (random.nextDouble() - 0.5) * 0.04,
+                place.longitude() + (random.nextDouble() - 0.5) * 0.04);
+        market.setOpeningHours(String.format("%02d:00 - %02d:00", 6 + random.nextInt(3), 18 + random.nextInt(4)));
+        market.setIsOpenToday(random.nextInt(7) != 0);
+
+        int aisles = (stallsPerMarket + STALLS_PER_AISLE - 1) / STALLS_PER_AISLE;
+        double width = (STALLS_PER_AISLE + 1) * STALL_SPACING;
+        double height = aisles * (STALL_SPACING + AISLE_WIDTH) + AISLE_WIDTH;
+        market.setMap2D(new LinkedHashMap<>(Map.of(
+                "width", width,
+                "height", height,
+                "entrances", List.of(Map.of("x", width / 2, "y", height), Map.of("x", 0.0, "y", height / 2)))));
+        market.setMap3D(new LinkedHashMap<>(Map.of("enabled", true, "floorCount", 1, "currentFloor", 0)));
+        market.setLayoutVersion(idGenerator.nextLong());
+        market.setLayoutUpdatedAt(Instant.now());
+        return market;
+    }
+
+    /** Stalls stand in aisles of {@value #STALLS_PER_AISLE}, slightly off the grid like real ones. */
+    private Stall stall(String marketId, int index, Random random) {
+        int aisle = index / STALLS_PER_AISLE;
+        int position = index % STALLS_PER_AISLE;
+        double x = (position + 1) * STALL_SPACING + (random.nextDouble() - 0.5) * 4;
+        double y = AISLE_WIDTH + aisle * (STALL_SPACING + AISLE_WIDTH) + STALL_SPACING / 2 + (random.nextDouble() - 0.5) * 4;
+        String category = PRODUCE.get(random.nextInt(PRODUCE.size())).category();
+        return new Stall(marketId, aisleName(aisle) + "-" + (position + 1), Math.round(x * 10) / 10.0,
+                Math.round(y * 10) / 10.0, 0.0, category, vendorName(random));
+    }
+
+    /** {@code count} distinct products, mostly from the stall's own category. */
+    private static List<Product> assortment(String category, int count, Map<String, List<Product>> byCategory,
+                                            List<Product> all, Random random) {
+        List<Product> own = byCategory.getOrDefault(category, all);
+        Set<Product> chosen = new LinkedHashSet<>();
+        int attempts = 0;
+        while (chosen.size() < count && attempts++ < count * 20) {
+            List<Product> pool = random.nextInt(10) < 8 ? own : all;
+            chosen.add(pool.get(random.nextInt(pool.size())));
+        }
+        for (int i = 0; chosen.size() < count && i < all.size(); i++) chosen.add(all.get(i));
+        return new ArrayList<>(chosen);
+    }
+
+    /** Prices spread around the product's typical price, rounded to 25 kuruş like on the stall signs. */
+    private MarketProduct listing(String marketId, Stall stall, Product product, double basePrice, Random random) {
+        double price = basePrice * Math.exp(random.nextGaussian() * 0.15);
+        MarketProduct listing = new MarketProduct();
+        listing.setId(idGenerator.nextId("lst_"));
+        listing.setMarketId(marketId);
+        listing.setProductId(product.getId());
+        listing.setPrice(Math.max(0.25, Math.round(price * 4) / 4.0));
+        listing.setStallNumber(stall.getStallId());
+        listing.setX((int) Math.round(stall.getX()));
+        listing.setY((int) Math.round(stall.getY()));
+        listing.setZ(0);
+        listing.setVendorName(stall.getVendorName());
+        return listing;
+    }
+
+    private static String vendorName(Random random) {
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + VENDOR_SUFFIXES[random.nextInt(VENDOR_SUFFIXES.length)];
+    }
+
+    /** A, B, ..., Z, AA, AB, ... */
+    private static String aisleName(int aisle) {
+        StringBuilder name = new StringBuilder();
+        for (int n = aisle + 1; n > 0; n = (n - 1) / 26) name.insert(0, (char) ('A' + (n - 1) % 26));
+        return name.toString();
+    }
+
+    private <T> void insert(List<T> documents, Class<T> type) {
+        for (int from = 0; from < documents.size(); from += batchSize) {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type)
+                    .insert(documents.subList(from, Math.min(from + batchSize, documents.size())))
+                    .execute();
+        }
+    }
+
+    /** Collects documents and bulk-inserts them whenever a batch is full. */
+    private final class Batch<T> {
+        private final Class<T> type;
+        private final List<T> pending = new ArrayList<>(batchSize);
+        long written;
+
+        Batch(Class<T> type) {
+            this.type = type;
+        }
+
+        void add(T document) {
+            pending.add(document);
+            if (pending.size() >= batchSize) flush();
+        }
+
+        void flush() {
+            if (pending.isEmpty()) return;
+            insert(pending, type);
+            written += pending.size();
+            pending.clear();
+        }
+    }
+}
@@ -1,8 +1,21 @@
 package com.pazar.backend.controller;
 
+import com.pazar.backend.dto.ImportReport;
+import com.pazar.backend.dto.MarketProductRequest;
+import com.pazar.backend.dto.MarketProductResponse;
+import com.pazar.backend.dto.MarketRequest;
+import com.pazar.backend.dto.MarketResponse;
+import com.pazar.backend.dto.ProductRequest;
+import com.pazar.backend.dto.ProductResponse;
+import com.pazar.backend.dto.StallRequest;
+import com.pazar.backend.dto.StallResponse;
+import com.pazar.backend.service.ListingImportService;
 import com.pazar.backend.service.MarketService;
+import com.pazar.backend.service.MarketStatistics;
 import com.pazar.backend.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -10,6 +23,9 @@ import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,14 +43,21 @@ public class AdminController {
     @Autowired
     private MarketService marketService;
 
+    @Autowired
+    private MarketStatistics marketStatistics;
+
+    @Autowired
+    private ListingImportService listingImportService;
+
     @Operation(summary = "Get Admin Dashboard", description = "Get admin dashboard data - Requires ADMIN authentication")
     @GetMapping("/dashboard")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getDashboard() {
         Map<String, Object> dashboard = new HashMap<>();
-        dashboard.put("totalMarkets", marketService.getAllMarkets().size());
-        dashboard.put("totalProducts", productService.getAllProducts().size());
-        dashboard.put("totalUsers", 10);
+        dashboard.put("totalMarkets", marketStatistics.getTotalMarkets());
+        dashboard.put("totalProducts", marketStatistics.getTotalProducts());
+        dashboard.put("totalListings", marketStatistics.getTotalListings());
+        dashboard.put("totalUsers", marketStatistics.getTotalUsers());
         dashboard.put("message", "Admin dashboard data");
         return ResponseEntity.ok(dashboard);
     }
@@ -44,10 +67,27 @@ public class AdminController {
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<Map<String, Object>> getStats() {
         Map<String, Object> stats = new HashMap<>();
-        stats.put("activeMarkets", marketService.getAllMarkets().size());
-        stats.put("activeProducts", productService.getAllProducts().size());
+        Duration uptime = marketStatistics.getUptime();
+        stats.put("activeMarkets", marketStatistics.getTotalMarkets());
+        stats.put("activeProducts", marketStatistics.getTotalProducts());
+        stats.put("activeListings", marketStatistics.getTotalListings());
         stats.put("systemStatus", "Healthy");
-        stats.put("uptime", "24 hours");
+        stats.put("uptime", String.format("%d hours %d minutes", uptime.toHours(), uptime.toMinutesPart()));
+        stats.put("uptimeSeconds", uptime.toSeconds());
+        stats.put("startedAt", marketStatistics.getStartedAt().toString());
+        stats.put("requestCount", marketStatistics.getRequestCount());
+        stats.put("serverErrorCount", marketStatistics.getServerErrorCount());
+        return ResponseEntity.ok(stats);
+    }
+
+    @Operation(summary = "Get Market Stats", description = "Listing, stall and per-category price statistics of a market - Requires ADMIN authentication")
+    @GetMapping("/stats/markets/{marketId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> getMarketStats(@PathVariable String marketId) {
+        Map<String, Object> stats = marketStatistics.getMarketSnapshot(marketId);
+        if (stats == null) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok(stats);
     }
 
@@ -55,18 +95,18 @@ public class AdminController {
     @Operation(summary = "Create Product", description = "Create a new product - Admin only")
     @PostMapping("/products")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> createProduct(@RequestBody Map<String, Object> productData) {
-        Map<String, Object> product = productService.createProduct(productData);
+    public ResponseEntity<ProductResponse> createProduct(@RequestBody ProductRequest productData) {
+        ProductResponse product = productService.createProduct(productData);
         return ResponseEntity.ok(product);
     }
 
     @Operation(summary = "Update Product", description = "Update an existing product - Admin only")
     @PutMapping("/products/{productId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> updateProduct(
+    public ResponseEntity<ProductResponse> updateProduct(
             @PathVariable String productId,
-            @RequestBody Map<String, Object> productData) {
-        Map<String, Object> product = productService.updateProduct(productId, productData);
+            @RequestBody ProductRequest productData) {
+        ProductResponse product = productService.updateProduct(productId, productData);
         if (product == null) {
             return ResponseEntity.notFound().build();
         }
@@ -90,13 +130,31 @@ public class AdminController {
     @Operation(summary = "Add Product to Market", description = "Add a product to a market with price and location - Admin only")
     @PostMapping("/markets/{marketId}/products")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> addProductToMarket(
+    public ResponseEntity<MarketProductResponse> addProductToMarket(
             @PathVariable String marketId,
-            @RequestBody Map<String, Object> marketProductData) {
-        Map<String, Object> result = productService.addProductToMarket(marketId, marketProductData);
+            @RequestBody MarketProductRequest marketProductData) {
+        MarketProductResponse result = productService.addProductToMarket(marketId, marketProductData);
         return ResponseEntity.ok(result);
     }
 
+    @Operation(summary = "Import Market Listings",
+               description = "Bulk import of listings from a CSV (header row: productId,price,stallNumber,x,y,z,vendorName) or NDJSON body; reports rejected rows by line - Admin only")
+    @PostMapping(value = "/markets/{marketId}/products/import", consumes = {"text/csv", NdjsonBody.MEDIA_TYPE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<ImportReport> importMarketProducts(
+            @PathVariable String marketId,
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+            InputStream body) throws IOException {
+        ListingImportService.Format format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON)
+                ? ListingImportService.Format.NDJSON
+                : ListingImportService.Format.CSV;
+        ImportReport report = listingImportService.importListings(marketId, body, format);
+        if (report == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(report);
+    }
+
     @Operation(summary = "Remove Product from Market", description = "Remove a product from a market - Admin only")
     @DeleteMapping("/markets/{marketId}/products/{productId}/stalls/{stallNumber}")
     @PreAuthorize("hasRole('ADMIN')")
@@ -118,18 +176,18 @@ public class AdminController {
     @Operation(summary = "Create Market", description = "Create a new market - Admin only")
     @PostMapping("/markets")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> createMarket(@RequestBody Map<String, Object> marketData) {
-        Map<String, Object> market = marketService.createMarket(marketData);
+    public ResponseEntity<MarketResponse> createMarket(@RequestBody MarketRequest marketData) {
+        MarketResponse market = marketService.createMarket(marketData);
         return ResponseEntity.ok(market);
     }
 
     @Operation(summary = "Update Market", description = "Update an existing market - Admin only")
     @PutMapping("/markets/{marketId}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> updateMarket(
+    public ResponseEntity<MarketResponse> updateMarket(
             @PathVariable String marketId,
-            @RequestBody Map<String, Object> marketData) {
-        Map<String, Object> market = marketService.updateMarket(marketId, marketData);
+            @RequestBody MarketRequest marketData) {
+        MarketResponse market = marketService.updateMarket(marketId, marketData);
         if (market == null) {
             return ResponseEntity.notFound().build();
         }
@@ -153,10 +211,10 @@ public class AdminController {
     @Operation(summary = "Add Stall to Market", description = "Add a stall to a market - Admin only")
     @PostMapping("/markets/{marketId}/stalls")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> addStallToMarket(
+    public ResponseEntity<StallResponse> addStallToMarket(
             @PathVariable String marketId,
-            @RequestBody Map<String, Object> stallData) {
-        Map<String, Object> result = marketService.addStallToMarket(marketId, stallData);
+            @RequestBody StallRequest stallData) {
+        StallResponse result = marketService.addStallToMarket(marketId, stallData);
         if (result == null) {
             return ResponseEntity.notFound().build();
         }
@@ -0,0 +1,38 @@
+package com.pazar.backend.controller;
+
+import com.pazar.backend.service.StallClaimException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /** A write hit a unique index, e.g. a second listing of the same product on the same stall. */
+    @ExceptionHandler(DuplicateKeyException.class)
+    public ResponseEntity<Map<String, Object>> handleDuplicateKey(DuplicateKeyException e) {
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("message", "Duplicate entry: " + e.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    @ExceptionHandler(StallClaimException.class)
+    public ResponseEntity<Map<String, Object>> handleStallClaim(StallClaimException e) {
+        HttpStatus status = switch (e.getReason()) {
+            case INVALID_REQUEST -> HttpStatus.BAD_REQUEST;
+            case MARKET_NOT_FOUND, PRODUCT_NOT_FOUND -> HttpStatus.NOT_FOUND;
+            case IDEMPOTENCY_CONFLICT, STALL_TAKEN -> HttpStatus.CONFLICT;
+        };
+        Map<String, Object> error = new HashMap<>();
+        error.put("success", false);
+        error.put("error", e.getReason());
+        error.put("message", e.getMessage());
+        return ResponseEntity.status(status).body(error);
+    }
+}
@@ -1,6 +1,7 @@
 package com.pazar.backend.controller;
 
 import com.pazar.backend.service.JwtService;
+import com.pazar.backend.service.MarketStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -18,6 +19,9 @@ public class AuthController {
     
     @Autowired
     private JwtService jwtService;
+
+    @Autowired
+    private MarketStatistics marketStatistics;
     
     @Operation(summary = "User Login", description = "Login with email and password")
     @PostMapping("/login")
@@ -43,6 +47,7 @@ public class AuthController {
             
             // JWT token oluştur
             String token = jwtService.generateToken(email, role);
+            marketStatistics.userLoggedIn(email);
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
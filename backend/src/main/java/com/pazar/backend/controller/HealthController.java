@@ -1,5 +1,11 @@
 package com.pazar.backend.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.CompositeHealth;
+import org.springframework.boot.actuate.health.HealthComponent;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,6 +14,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
@@ -15,14 +22,24 @@ import java.util.Map;
 @CrossOrigin(origins = {"http://localhost:5173", "http://frontend:3000"})
 public class HealthController {
 
+    @Autowired
+    private HealthEndpoint healthEndpoint;
+
+    /** Actuator's health (which pings Mongo) with the status of each component; 503 unless UP. */
     @GetMapping
     public ResponseEntity<Map<String, Object>> health() {
+        HealthComponent health = healthEndpoint.health();
         Map<String, Object> response = new HashMap<>();
-        response.put("status", "UP");
+        response.put("status", health.getStatus().getCode());
+        if (health instanceof CompositeHealth composite) {
+            Map<String, String> components = new LinkedHashMap<>();
+            composite.getComponents().forEach((name, component) -> components.put(name, component.getStatus().getCode()));
+            response.put("components", components);
+        }
         response.put("timestamp", LocalDateTime.now().toString());
         response.put("service", "Pazar Backend API");
         response.put("version", "1.0.0");
-        return ResponseEntity.ok(response);
+        HttpStatus status = Status.UP.equals(health.getStatus()) ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE;
+        return ResponseEntity.status(status).body(response);
     }
 }
-
@@ -1,13 +1,31 @@
 package com.pazar.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.dto.CursorPage;
+import com.pazar.backend.dto.MarketProductResponse;
+import com.pazar.backend.dto.MarketResponse;
+import com.pazar.backend.dto.NearbyStall;
+import com.pazar.backend.dto.RouteResponse;
+import com.pazar.backend.service.MarketEventHub;
+import com.pazar.backend.service.MarketMapCache;
+import com.pazar.backend.service.MarketRoutePlanner;
 import com.pazar.backend.service.MarketService;
+import com.pazar.backend.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import java.util.Map;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/markets")
@@ -18,43 +36,181 @@ public class MarketController {
     @Autowired
     private MarketService marketService;
 
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private MarketMapCache marketMapCache;
+
+    @Autowired
+    private MarketEventHub marketEventHub;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Operation(summary = "Get All Markets", description = "List all marketplaces")
     @GetMapping
-    public ResponseEntity<?> getAllMarkets() {
-        return ResponseEntity.ok(marketService.getAllMarkets());
+    public Flux<MarketResponse> getAllMarkets() {
+        return marketService.getAllMarkets();
+    }
+
+    @Operation(summary = "Get Markets Page", description = "List markets in id order, one page at a time; pass nextCursor as 'after' to continue")
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<MarketResponse>> getMarketsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(marketService.getMarketsPage(after, limit));
+    }
+
+    @Operation(summary = "Export Markets", description = "Stream all markets as newline-delimited JSON")
+    @GetMapping(produces = NdjsonBody.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportMarkets() {
+        return ResponseEntity.ok(NdjsonBody.of(objectMapper, marketService::streamAllMarkets));
     }
 
     @Operation(summary = "Get Market by ID", description = "Get detailed information about a specific market")
     @GetMapping("/{marketId}")
-    public ResponseEntity<Map<String, Object>> getMarket(@PathVariable String marketId) {
-        Map<String, Object> market = marketService.getMarketById(marketId);
+    public ResponseEntity<MarketResponse> getMarket(@PathVariable String marketId) {
+        MarketResponse market = marketService.getMarketById(marketId);
         if (market == null) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(market);
     }
 
-    @Operation(summary = "Get Market Map", description = "Get 2D and 3D map information for a market")
+    @Operation(summary = "Get Market Products", description = "List the product listings of a market in id order, one page at a time")
+    @GetMapping("/{marketId}/products")
+    public ResponseEntity<CursorPage<MarketProductResponse>> getMarketProducts(
+            @PathVariable String marketId,
+            @RequestParam(defaultValue = "100") int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(productService.getMarketProductsPage(marketId, after, limit));
+    }
+
+    @Operation(summary = "Export Market Products", description = "Stream all product listings of a market as newline-delimited JSON")
+    @GetMapping(value = "/{marketId}/products", produces = NdjsonBody.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportMarketProducts(@PathVariable String marketId) {
+        return ResponseEntity.ok(NdjsonBody.of(objectMapper, () -> productService.streamMarketProducts(marketId)));
+    }
+
+    @Operation(summary = "Get Market Map",
+               description = "Get 2D and 3D map information for a market; answers If-None-Match / If-Modified-Since with 304 and sends gzip when accepted")
     @GetMapping("/{marketId}/map")
-    public ResponseEntity<Map<String, Object>> getMarketMap(@PathVariable String marketId) {
-        Map<String, Object> map = marketService.getMarketMap(marketId);
-        if (map == null) {
+    public Mono<ResponseEntity<byte[]>> getMarketMap(@PathVariable String marketId, @RequestHeader HttpHeaders headers) {
+        return marketMapCache.version(marketId)
+                .flatMap(version -> notModified(headers, version)
+                        ? Mono.just(withValidators(ResponseEntity.status(HttpStatus.NOT_MODIFIED), version).<byte[]>build())
+                        : marketMapCache.snapshot(marketId, version).map(snapshot -> mapBody(snapshot, acceptsGzip(headers))))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @Operation(summary = "Subscribe to Market Events",
+               description = "Server-sent events of a market: listing-added, listing-removed, price-changed, stall-added, stall-removed, "
+                       + "map-changed. Bursts are coalesced; 'resync' asks the client to reload the market's data")
+    @GetMapping(value = "/{marketId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToEvents(@PathVariable String marketId) {
+        if (!marketService.marketExists(marketId)) {
             return ResponseEntity.notFound().build();
         }
-        return ResponseEntity.ok(map);
+        SseEmitter emitter = marketEventHub.subscribe(marketId);
+        if (emitter == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").build();
+        }
+        // Keeps reverse proxies (nginx) from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
     }
 
-    @Operation(summary = "Get Route to Stall", description = "Get navigation route to a specific stall in the market")
+    @Operation(summary = "Find Nearest Stalls", description = "Get the k stalls nearest to a position, optionally of one type")
+    @GetMapping("/{marketId}/stalls/nearest")
+    public ResponseEntity<List<NearbyStall>> findNearestStalls(
+            @PathVariable String marketId,
+            @RequestParam double x,
+            @RequestParam double y,
+            @RequestParam(defaultValue = "0") double z,
+            @RequestParam(defaultValue = "5") int k,
+            @RequestParam(required = false) String type) {
+        List<NearbyStall> stalls = marketService.findNearestStalls(marketId, x, y, z, k, type);
+        if (stalls == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(stalls);
+    }
+
+    @Operation(summary = "Find Stalls Within Radius", description = "Get all stalls within a radius of a position, nearest first, optionally of one type")
+    @GetMapping("/{marketId}/stalls/within")
+    public ResponseEntity<List<NearbyStall>> findStallsWithinRadius(
+            @PathVariable String marketId,
+            @RequestParam double x,
+            @RequestParam double y,
+            @RequestParam(defaultValue = "0") double z,
+            @RequestParam double radius,
+            @RequestParam(required = false) String type) {
+        List<NearbyStall> stalls = marketService.findStallsWithinRadius(marketId, x, y, z, radius, type);
+        if (stalls == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(stalls);
+    }
+
+    @Operation(summary = "Get Route to Stall", description = "Walking route to a stall from the nearest entrance, or from fromX/fromY when given")
     @GetMapping("/{marketId}/route/{stallNumber}")
-    public ResponseEntity<Map<String, Object>> getRoute(
+    public ResponseEntity<RouteResponse> getRoute(
             @PathVariable String marketId,
-            @PathVariable String stallNumber) {
+            @PathVariable String stallNumber,
+            @RequestParam(required = false) Double fromX,
+            @RequestParam(required = false) Double fromY) {
         
-        Map<String, Object> route = marketService.getRoute(marketId, stallNumber);
+        MarketRoutePlanner.Point from = fromX != null && fromY != null ? new MarketRoutePlanner.Point(fromX, fromY) : null;
+        RouteResponse route = marketService.getRoute(marketId, stallNumber, from);
         if (route == null) {
             return ResponseEntity.notFound().build();
         }
         return ResponseEntity.ok(route);
     }
-}
 
+    private static ResponseEntity<byte[]> mapBody(MarketMapCache.Snapshot snapshot, boolean gzip) {
+        byte[] body = gzip ? snapshot.gzip() : snapshot.json();
+        ResponseEntity.BodyBuilder builder = withValidators(ResponseEntity.ok(), snapshot.version())
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length);
+        if (gzip) builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return builder.body(body);
+    }
+
+    /** Clients poll the map: they may keep it, but must revalidate it with its ETag on every use. */
+    private static <B extends ResponseEntity.HeadersBuilder<B>> B withValidators(B builder, MarketMapCache.Version version) {
+        builder.cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (version.etag() != null) builder.eTag(version.etag());
+        if (version.updatedAt() != null) builder.lastModified(version.updatedAt());
+        return builder;
+    }
+
+    private static boolean notModified(HttpHeaders headers, MarketMapCache.Version version) {
+        String etag = version.etag();
+        if (etag == null) return false;
+        List<String> ifNoneMatch = headers.getIfNoneMatch();
+        if (!ifNoneMatch.isEmpty()) {
+            // Weak comparison, as for any GET; If-Modified-Since is ignored when If-None-Match is present
+            return ifNoneMatch.stream().anyMatch(tag -> tag.equals("*") || opaqueTag(tag).equals(opaqueTag(etag)));
+        }
+        long ifModifiedSince = headers.getIfModifiedSince();
+        return ifModifiedSince >= 0 && version.updatedAt() != null
+                && version.updatedAt().getEpochSecond() <= ifModifiedSince / 1000;
+    }
+
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        String acceptEncoding = headers.getFirst(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
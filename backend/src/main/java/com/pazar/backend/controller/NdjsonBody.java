@@ -0,0 +1,45 @@
+package com.pazar.backend.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Writes a (cursor-backed) stream as newline-delimited JSON, one document at a time.
+ */
+final class NdjsonBody {
+
+    static final String MEDIA_TYPE = MediaType.APPLICATION_NDJSON_VALUE;
+
+    private static final int FLUSH_EVERY = 256;
+
+    private NdjsonBody() {}
+
+    static <T> StreamingResponseBody of(ObjectMapper objectMapper, Supplier<Stream<T>> source) {
+        ObjectWriter writer = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return out -> {
+            try (Stream<T> items = source.get();
+                 JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                generator.setRootValueSeparator(null);
+                Iterator<T> iterator = items.iterator();
+                int written = 0;
+                while (iterator.hasNext()) {
+                    writer.writeValue(generator, iterator.next());
+                    generator.writeRaw('\n');
+                    // First flush as soon as possible so time to first byte does not depend on size
+                    if (++written == 1 || written % FLUSH_EVERY == 0) {
+                        generator.flush();
+                    }
+                }
+            }
+        };
+    }
+}
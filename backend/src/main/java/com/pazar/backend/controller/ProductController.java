@@ -1,14 +1,27 @@
 package com.pazar.backend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.dto.CheapestListingResponse;
+import com.pazar.backend.dto.CursorPage;
+import com.pazar.backend.dto.MarketProductResponse;
+import com.pazar.backend.dto.PriceHistoryResponse;
+import com.pazar.backend.dto.ProductPricesResponse;
+import com.pazar.backend.dto.ProductResponse;
+import com.pazar.backend.dto.ProductSearchResponse;
+import com.pazar.backend.service.PriceHistoryService;
 import com.pazar.backend.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
-import java.util.*;
-import java.util.stream.Collectors;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/products")
@@ -19,136 +32,93 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private PriceHistoryService priceHistoryService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Operation(summary = "Get All Products", description = "List all available products")
     @GetMapping
-    public ResponseEntity<List<Map<String, Object>>> getAllProducts() {
+    public ResponseEntity<List<ProductResponse>> getAllProducts() {
         return ResponseEntity.ok(productService.getAllProducts());
     }
 
+    @Operation(summary = "Get Products Page", description = "List products in id order, one page at a time; pass nextCursor as 'after' to continue")
+    @GetMapping(params = "limit")
+    public ResponseEntity<CursorPage<ProductResponse>> getProductsPage(
+            @RequestParam int limit,
+            @RequestParam(required = false) String after) {
+        return ResponseEntity.ok(productService.getProductsPage(after, limit));
+    }
+
+    @Operation(summary = "Export Products", description = "Stream all products as newline-delimited JSON")
+    @GetMapping(produces = NdjsonBody.MEDIA_TYPE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        return ResponseEntity.ok(NdjsonBody.of(objectMapper, productService::streamAllProducts));
+    }
+
     @Operation(summary = "Search Products", description = "Search products by name with AI-powered suggestions")
     @GetMapping("/search")
-    public ResponseEntity<Map<String, Object>> searchProducts(
+    public Mono<ProductSearchResponse> searchProducts(
             @RequestParam String query,
             @RequestParam(required = false) String marketId) {
-        
-        List<Map<String, Object>> results = productService.searchProducts(query, marketId);
-        List<Map<String, Object>> marketProducts = productService.getMarketProducts(marketId != null ? marketId : "market_1");
-
-        List<Map<String, Object>> enrichedResults = new ArrayList<>();
-        for (Map<String, Object> product : results) {
-            Map<String, Object> enriched = new HashMap<>(product);
-            
-            if (marketId != null && !marketProducts.isEmpty()) {
-                List<Map<String, Object>> productInMarket = marketProducts.stream()
-                    .filter(mp -> mp.get("productId").equals(product.get("id")))
-                    .collect(Collectors.toList());
-                
-                if (!productInMarket.isEmpty()) {
-                    Optional<Map<String, Object>> cheapest = productInMarket.stream()
-                        .min(Comparator.comparingDouble(mp -> (Double) mp.get("price")));
-                    
-                    if (cheapest.isPresent()) {
-                        enriched.put("minPrice", cheapest.get().get("price"));
-                        enriched.put("stallNumber", cheapest.get().get("stallNumber"));
-                        enriched.put("location", Map.of(
-                            "x", cheapest.get().get("x"),
-                            "y", cheapest.get().get("y"),
-                            "z", cheapest.get().get("z")
-                        ));
-                        enriched.put("vendorName", cheapest.get().get("vendorName"));
-                    }
-                    
-                    enriched.put("allPrices", productInMarket.stream()
-                        .map(mp -> Map.of(
-                            "price", mp.get("price"),
-                            "stallNumber", mp.get("stallNumber"),
-                            "vendorName", mp.get("vendorName")
-                        ))
-                        .collect(Collectors.toList()));
-                }
-            }
-            
-            enrichedResults.add(enriched);
-        }
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("query", query);
-        response.put("results", enrichedResults);
-        response.put("count", enrichedResults.size());
-        response.put("aiSuggestions", productService.generateAISuggestions(query));
-        
-        return ResponseEntity.ok(response);
+        return productService.searchProducts(query, marketId);
     }
 
     @Operation(summary = "Get Product Prices in Market", description = "Get all prices and locations for a product in a specific market")
     @GetMapping("/{productId}/prices")
-    public ResponseEntity<Map<String, Object>> getProductPrices(
+    public Mono<ResponseEntity<ProductPricesResponse>> getProductPrices(
             @PathVariable String productId,
             @RequestParam String marketId) {
-        
-        Map<String, Object> product = productService.getProductById(productId);
-        if (product == null) {
-            return ResponseEntity.notFound().build();
-        }
-
-        List<Map<String, Object>> marketProducts = productService.getMarketProducts(marketId);
-        List<Map<String, Object>> productPrices = marketProducts.stream()
-            .filter(mp -> mp.get("productId").equals(productId))
-            .sorted(Comparator.comparingDouble(mp -> (Double) mp.get("price")))
-            .collect(Collectors.toList());
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("product", product);
-        response.put("prices", productPrices);
-        response.put("cheapest", productPrices.isEmpty() ? null : productPrices.get(0));
-        response.put("mostExpensive", productPrices.isEmpty() ? null : productPrices.get(productPrices.size() - 1));
+        return productService.getProductPrices(productId, marketId)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
 
-        return ResponseEntity.ok(response);
+    @Operation(summary = "Get Price History",
+               description = "Hourly or daily min/avg/max prices of a product in a market, or in all markets without marketId; "
+                       + "from/to are days (inclusive), by default the last 30 days (daily) or today (hourly)")
+    @GetMapping("/{productId}/price-history")
+    public ResponseEntity<PriceHistoryResponse> getPriceHistory(
+            @PathVariable String productId,
+            @RequestParam(required = false) String marketId,
+            @RequestParam(defaultValue = "day") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        PriceHistoryResponse history;
+        try {
+            history = priceHistoryService.getHistory(productId, marketId,
+                    PriceHistoryResponse.Interval.valueOf(interval.toUpperCase(Locale.ROOT)), from, to);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return history != null ? ResponseEntity.ok(history) : ResponseEntity.notFound().build();
     }
 
     @Operation(summary = "Get Products by Category", description = "List products in specified category")
     @GetMapping("/category/{category}")
-    public ResponseEntity<List<Map<String, Object>>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ProductResponse>> getProductsByCategory(@PathVariable String category) {
         return ResponseEntity.ok(productService.getProductsByCategory(category));
     }
 
     @Operation(summary = "Find Cheapest Product", description = "Find the cheapest vendor for a product - Requires authentication")
     @io.swagger.v3.oas.annotations.security.SecurityRequirement(name = "bearerAuth")
     @GetMapping("/{productId}/cheapest")
-    public ResponseEntity<Map<String, Object>> findCheapest(
+    public ResponseEntity<CheapestListingResponse> findCheapest(
             @PathVariable String productId,
             @RequestParam String marketId) {
         
-        Map<String, Object> product = productService.getProductById(productId);
+        ProductResponse product = productService.getProductById(productId);
         if (product == null) {
             return ResponseEntity.notFound().build();
         }
 
-        List<Map<String, Object>> marketProducts = productService.getMarketProducts(marketId);
-        Optional<Map<String, Object>> cheapest = marketProducts.stream()
-            .filter(mp -> mp.get("productId").equals(productId))
-            .min(Comparator.comparingDouble(mp -> (Double) mp.get("price")));
-
-        if (cheapest.isEmpty()) {
-            Map<String, Object> error = new HashMap<>();
-            error.put("error", "Product not found in market");
+        MarketProductResponse cheapest = productService.getCheapestListing(productId, marketId);
+        if (cheapest == null) {
             return ResponseEntity.notFound().build();
         }
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("product", product);
-        response.put("cheapestOption", cheapest.get());
-        response.put("route", Map.of(
-            "stallNumber", cheapest.get().get("stallNumber"),
-            "location", Map.of(
-                "x", cheapest.get().get("x"),
-                "y", cheapest.get().get("y"),
-                "z", cheapest.get().get("z")
-            ),
-            "directions", "Pazar girişinden " + cheapest.get().get("stallNumber") + " numaralı tezgaha yürüyün"
-        ));
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(CheapestListingResponse.of(product, cheapest));
     }
 }
-
@@ -1,14 +1,18 @@
 package com.pazar.backend.controller;
 
-import com.pazar.backend.service.MarketService;
-import com.pazar.backend.service.ProductService;
+import com.pazar.backend.dto.PriceUpdateReport;
+import com.pazar.backend.dto.PriceUpdateRequest;
+import com.pazar.backend.dto.StallClaimRequest;
+import com.pazar.backend.dto.StallClaimResponse;
+import com.pazar.backend.service.PriceUpdateService;
+import com.pazar.backend.service.StallClaimService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.HashMap;
 import java.util.Map;
 import java.util.List;
 
@@ -19,74 +23,35 @@ import java.util.List;
 public class SellerController {
 
     @Autowired
-    private MarketService marketService;
+    private StallClaimService stallClaimService;
 
     @Autowired
-    private ProductService productService;
+    private PriceUpdateService priceUpdateService;
 
-    @Operation(summary = "Claim Stall and Add Product", description = "Seller claims a spot on map and adds a product")
+    @Operation(summary = "Claim Stall and Add Product",
+               description = "Seller claims a spot on map and adds a product; retries with the same Idempotency-Key header do not create duplicates")
     @PostMapping("/stall/claim")
-    public ResponseEntity<Map<String, Object>> claimStallAndAddProduct(@RequestBody Map<String, Object> request) {
-        try {
-            String marketId = (String) request.get("marketId");
-            Map<String, Object> productData = (Map<String, Object>) request.get("productData");
-            Map<String, Object> positionData = (Map<String, Object>) request.get("position");
-            String vendorName = (String) request.get("vendorName");
-            Double price = Double.valueOf(request.get("price").toString());
-
-            // 1. Create Product if new or use existing ID if provided (simplified: assuming new or selection)
-            // For now, let's assume we create a new product entry or link to an existing generic product type
-            // But usually seller says "I am selling Tomatoes" which is prod_1. 
-            // So request should ideally contain productId. If not, we might need to create it.
-            
-            String productId = (String) productData.get("id");
-            if (productId == null) {
-                // If it's a completely new custom product
-                Map<String, Object> newProd = productService.createProduct(productData);
-                productId = (String) newProd.get("id");
-            }
-
-            // 2. Add to MarketProducts (Price listing)
-            String stallNumber = "S-" + System.currentTimeMillis() % 1000; // Generate fake stall number
-            
-            Map<String, Object> marketProductData = new HashMap<>();
-            marketProductData.put("productId", productId);
-            marketProductData.put("price", price);
-            marketProductData.put("stallNumber", stallNumber);
-            marketProductData.put("x", positionData.get("x"));
-            marketProductData.put("y", positionData.get("y"));
-            marketProductData.put("z", positionData.getOrDefault("z", 0));
-            marketProductData.put("vendorName", vendorName);
-            
-            productService.addProductToMarket(marketId, marketProductData);
-
-            // 3. Update Market Map (Visual representation)
-            Map<String, Object> stallData = new HashMap<>();
-            stallData.put("id", stallNumber);
-            stallData.put("x", positionData.get("x"));
-            stallData.put("y", positionData.get("y"));
-            stallData.put("z", positionData.getOrDefault("z", 0));
-            stallData.put("type", productData.get("category"));
-            stallData.put("vendorName", vendorName); // Add vendor info to map stall
-            
-            marketService.addStallToMarket(marketId, stallData);
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Stall claimed and product added successfully");
-            response.put("stallNumber", stallNumber);
-            
-            return ResponseEntity.ok(response);
-
-        } catch (Exception e) {
-            e.printStackTrace();
-            Map<String, Object> error = new HashMap<>();
-            error.put("success", false);
-            error.put("message", "Error claiming stall: " + e.getMessage());
-            return ResponseEntity.status(500).body(error);
-        }
+    public ResponseEntity<StallClaimResponse> claimStallAndAddProduct(
+            @RequestBody StallClaimRequest request,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            Authentication authentication) {
+        return ResponseEntity.ok(stallClaimService.claim(request, idempotencyKey, authentication.getName()));
     }
     
+    @Operation(summary = "Update Prices", description = "Change the price of many listings of a market at once; each update is reported separately. Sellers can only change their own listings, admins any listing")
+    @PutMapping("/markets/{marketId}/prices")
+    public ResponseEntity<PriceUpdateReport> updatePrices(
+            @PathVariable String marketId,
+            @RequestBody List<PriceUpdateRequest> updates,
+            Authentication authentication) {
+        if (updates.isEmpty() || updates.size() > PriceUpdateService.MAX_BATCH_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        boolean admin = authentication.getAuthorities().stream()
+                .anyMatch(authority -> "ROLE_ADMIN".equals(authority.getAuthority()));
+        return ResponseEntity.ok(priceUpdateService.updatePrices(marketId, updates, authentication.getName(), admin));
+    }
+
     @Operation(summary = "Get Seller Products", description = "Get products listed by this seller (mock implementation)")
     @GetMapping("/products")
     public ResponseEntity<List<Map<String, Object>>> getSellerProducts(@RequestParam String vendorName) {
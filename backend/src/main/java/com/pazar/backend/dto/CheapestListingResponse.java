@@ -0,0 +1,16 @@
+package com.pazar.backend.dto;
+
+public record CheapestListingResponse(
+        ProductResponse product,
+        MarketProductResponse cheapestOption,
+        RouteHint route) {
+
+    public record RouteHint(String stallNumber, Location location, String directions) {}
+
+    public static CheapestListingResponse of(ProductResponse product, MarketProductResponse cheapest) {
+        return new CheapestListingResponse(product, cheapest, new RouteHint(
+                cheapest.stallNumber(),
+                new Location(cheapest.x(), cheapest.y(), cheapest.z()),
+                "Pazar girişinden " + cheapest.stallNumber() + " numaralı tezgaha yürüyün"));
+    }
+}
@@ -0,0 +1,18 @@
+package com.pazar.backend.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public record CursorPage<T>(List<T> items, String nextCursor) {
+
+    /**
+     * Builds a page from a query that fetched {@code limit + 1} rows ordered by id; the extra row
+     * only signals that another page exists and is not returned.
+     */
+    public static <E, T> CursorPage<T> of(List<E> rows, int limit, Function<E, String> idOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> page = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? idOf.apply(page.get(page.size() - 1)) : null;
+        return new CursorPage<>(page.stream().map(mapper).toList(), nextCursor);
+    }
+}
@@ -0,0 +1,18 @@
+package com.pazar.backend.dto;
+
+import java.util.List;
+
+public record ImportReport(
+        String marketId,
+        long rowsRead,
+        long imported,
+        long rejected,
+        List<RowError> errors,
+        boolean errorsTruncated,
+        long elapsedMillis,
+        // imported rows per second; rejected rows are not counted
+        double rowsPerSecond) {
+
+    /** {@code line} is the 1-based line of the request body the row came from. */
+    public record RowError(long line, String message) {}
+}
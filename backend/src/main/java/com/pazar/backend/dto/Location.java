@@ -0,0 +1,10 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+
+public record Location(Integer x, Integer y, Integer z) {
+
+    public static Location of(MarketProduct listing) {
+        return new Location(listing.getX(), listing.getY(), listing.getZ());
+    }
+}
@@ -0,0 +1,10 @@
+package com.pazar.backend.dto;
+
+import java.util.Map;
+
+public record MarketMapResponse(
+        String marketId,
+        String marketName,
+        Map<String, Object> map2D,
+        Map<String, Object> map3D) {
+}
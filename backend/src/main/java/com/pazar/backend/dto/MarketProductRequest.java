@@ -0,0 +1,28 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+
+public record MarketProductRequest(
+        String id,
+        String productId,
+        Double price,
+        String stallNumber,
+        Integer x,
+        Integer y,
+        Integer z,
+        String vendorName) {
+
+    public MarketProduct toEntity(String marketId) {
+        MarketProduct listing = new MarketProduct();
+        listing.setId(id);
+        listing.setMarketId(marketId);
+        listing.setProductId(productId);
+        listing.setPrice(price);
+        listing.setStallNumber(stallNumber);
+        listing.setX(x);
+        listing.setY(y);
+        listing.setZ(z);
+        listing.setVendorName(vendorName);
+        return listing;
+    }
+}
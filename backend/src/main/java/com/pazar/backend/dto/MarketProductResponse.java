@@ -0,0 +1,28 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+
+public record MarketProductResponse(
+        String id,
+        String marketId,
+        String productId,
+        Double price,
+        String stallNumber,
+        Integer x,
+        Integer y,
+        Integer z,
+        String vendorName) {
+
+    public static MarketProductResponse from(MarketProduct listing) {
+        return new MarketProductResponse(
+                listing.getId(),
+                listing.getMarketId(),
+                listing.getProductId(),
+                listing.getPrice(),
+                listing.getStallNumber(),
+                listing.getX(),
+                listing.getY(),
+                listing.getZ(),
+                listing.getVendorName());
+    }
+}
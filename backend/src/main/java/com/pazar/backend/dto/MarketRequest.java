@@ -0,0 +1,26 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.Market;
+
+import java.util.Map;
+
+public record MarketRequest(
+        String id,
+        String name,
+        String address,
+        Double latitude,
+        Double longitude,
+        Boolean isOpenToday,
+        String openingHours,
+        Map<String, Object> map2D,
+        Map<String, Object> map3D) {
+
+    public Market toEntity() {
+        Market market = new Market(id, name, address, latitude, longitude);
+        market.setIsOpenToday(isOpenToday);
+        market.setOpeningHours(openingHours);
+        market.setMap2D(map2D);
+        market.setMap3D(map3D);
+        return market;
+    }
+}
@@ -0,0 +1,30 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.Market;
+
+import java.util.Map;
+
+public record MarketResponse(
+        String id,
+        String name,
+        String address,
+        Double latitude,
+        Double longitude,
+        Boolean isOpenToday,
+        String openingHours,
+        Map<String, Object> map2D,
+        Map<String, Object> map3D) {
+
+    public static MarketResponse from(Market market) {
+        return new MarketResponse(
+                market.getId(),
+                market.getName(),
+                market.getAddress(),
+                market.getLatitude(),
+                market.getLongitude(),
+                market.getIsOpenToday(),
+                market.getOpeningHours(),
+                market.getMap2D(),
+                market.getMap3D());
+    }
+}
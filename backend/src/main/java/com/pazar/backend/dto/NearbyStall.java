@@ -0,0 +1,19 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.service.StallGrid;
+
+public record NearbyStall(
+        String id,
+        double x,
+        double y,
+        double z,
+        String type,
+        String vendorName,
+        double distance) {
+
+    public static NearbyStall from(StallGrid.Hit hit) {
+        StallGrid.Stall stall = hit.stall();
+        return new NearbyStall(stall.id(), stall.x(), stall.y(), stall.z(),
+                stall.type(), stall.vendorName(), hit.distance());
+    }
+}
@@ -0,0 +1,21 @@
+package com.pazar.backend.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Price trend of a product, one point per hour or day that had prices, oldest first. Without a
+ * market, {@code marketId} is {@code "*"} and the points cover all markets.
+ */
+public record PriceHistoryResponse(
+        String productId,
+        String marketId,
+        Interval interval,
+        String zone,
+        List<Point> points) {
+
+    public enum Interval { HOUR, DAY }
+
+    /** {@code time} is the start of the hour or day; {@code count} is the number of prices seen in it. */
+    public record Point(Instant time, double min, double avg, double max, long count) {}
+}
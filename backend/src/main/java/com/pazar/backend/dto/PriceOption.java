@@ -0,0 +1,10 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+
+public record PriceOption(Double price, String stallNumber, String vendorName) {
+
+    public static PriceOption from(MarketProduct listing) {
+        return new PriceOption(listing.getPrice(), listing.getStallNumber(), listing.getVendorName());
+    }
+}
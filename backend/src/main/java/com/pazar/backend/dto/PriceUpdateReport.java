@@ -0,0 +1,26 @@
+package com.pazar.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+public record PriceUpdateReport(
+        String marketId,
+        int requested,
+        int updated,
+        int failed,
+        List<ItemResult> results) {
+
+    public enum Status { UPDATED, NOT_FOUND, FORBIDDEN, INVALID, SUPERSEDED, FAILED }
+
+    /** {@code index} is the position of the update in the request array. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public record ItemResult(
+            int index,
+            Status status,
+            String listingId,
+            Double oldPrice,
+            Double newPrice,
+            String message) {
+    }
+}
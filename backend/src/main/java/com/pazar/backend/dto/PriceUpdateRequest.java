@@ -0,0 +1,9 @@
+package com.pazar.backend.dto;
+
+/** One price change; the listing is addressed by {@code listingId}, or by {@code productId} plus {@code stallNumber}. */
+public record PriceUpdateRequest(
+        String listingId,
+        String productId,
+        String stallNumber,
+        Double price) {
+}
@@ -0,0 +1,16 @@
+package com.pazar.backend.dto;
+
+import java.util.List;
+
+public record ProductPricesResponse(
+        ProductResponse product,
+        List<MarketProductResponse> prices,
+        MarketProductResponse cheapest,
+        MarketProductResponse mostExpensive) {
+
+    public static ProductPricesResponse of(ProductResponse product, List<MarketProductResponse> prices) {
+        return new ProductPricesResponse(product, prices,
+                prices.isEmpty() ? null : prices.get(0),
+                prices.isEmpty() ? null : prices.get(prices.size() - 1));
+    }
+}
@@ -0,0 +1,15 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.Product;
+
+public record ProductRequest(
+        String id,
+        String name,
+        String category,
+        String unit,
+        String freshness) {
+
+    public Product toEntity() {
+        return new Product(id, name, category, unit, freshness);
+    }
+}
@@ -0,0 +1,20 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.Product;
+
+public record ProductResponse(
+        String id,
+        String name,
+        String category,
+        String unit,
+        String freshness) {
+
+    public static ProductResponse from(Product product) {
+        return new ProductResponse(
+                product.getId(),
+                product.getName(),
+                product.getCategory(),
+                product.getUnit(),
+                product.getFreshness());
+    }
+}
@@ -0,0 +1,10 @@
+package com.pazar.backend.dto;
+
+import java.util.List;
+
+public record ProductSearchResponse(
+        String query,
+        List<ProductSearchResult> results,
+        int count,
+        List<String> aiSuggestions) {
+}
@@ -0,0 +1,35 @@
+package com.pazar.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+
+import java.util.List;
+
+public record ProductSearchResult(
+        String id,
+        String name,
+        String category,
+        String unit,
+        String freshness,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Double minPrice,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String stallNumber,
+        @JsonInclude(JsonInclude.Include.NON_NULL) Location location,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String vendorName,
+        @JsonInclude(JsonInclude.Include.NON_NULL) List<PriceOption> allPrices) {
+
+    public static ProductSearchResult of(Product product) {
+        return new ProductSearchResult(
+                product.getId(), product.getName(), product.getCategory(),
+                product.getUnit(), product.getFreshness(),
+                null, null, null, null, null);
+    }
+
+    public static ProductSearchResult of(Product product, MarketProduct cheapest, List<PriceOption> allPrices) {
+        return new ProductSearchResult(
+                product.getId(), product.getName(), product.getCategory(),
+                product.getUnit(), product.getFreshness(),
+                cheapest.getPrice(), cheapest.getStallNumber(), Location.of(cheapest),
+                cheapest.getVendorName(), allPrices);
+    }
+}
@@ -0,0 +1,22 @@
+package com.pazar.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pazar.backend.service.MarketRoutePlanner;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record RouteResponse(
+        String stallNumber,
+        StallLocation location,
+        String origin,
+        boolean reachable,
+        List<MarketRoutePlanner.Point> waypoints,
+        Double distance,
+        Double distanceMeters,
+        Long estimatedSeconds,
+        String estimatedTime,
+        String directions) {
+
+    public record StallLocation(double x, double y, double z) {}
+}
@@ -0,0 +1,11 @@
+package com.pazar.backend.dto;
+
+public record StallClaimRequest(
+        String marketId,
+        ProductRequest productData,
+        Position position,
+        String vendorName,
+        Double price) {
+
+    public record Position(Integer x, Integer y, Integer z) {}
+}
@@ -0,0 +1,11 @@
+package com.pazar.backend.dto;
+
+/** {@code replayed} is true when the idempotency key had been used before and no new data was written. */
+public record StallClaimResponse(
+        boolean success,
+        String message,
+        String stallNumber,
+        String productId,
+        String listingId,
+        boolean replayed) {
+}
@@ -0,0 +1,16 @@
+package com.pazar.backend.dto;
+
+import com.pazar.backend.entity.mongo.Stall;
+
+public record StallRequest(
+        String id,
+        Double x,
+        Double y,
+        Double z,
+        String type,
+        String vendorName) {
+
+    public Stall toEntity(String marketId) {
+        return new Stall(marketId, id, x, y, z != null ? z : 0.0, type, vendorName);
+    }
+}
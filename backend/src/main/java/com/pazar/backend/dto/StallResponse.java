@@ -0,0 +1,24 @@
+package com.pazar.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.service.StallGrid;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record StallResponse(
+        String id,
+        Double x,
+        Double y,
+        Double z,
+        String type,
+        String vendorName) {
+
+    public static StallResponse from(Stall stall) {
+        return new StallResponse(stall.getStallId(), stall.getX(), stall.getY(), stall.getZ(),
+                stall.getType(), stall.getVendorName());
+    }
+
+    public static StallResponse from(StallGrid.Stall stall) {
+        return new StallResponse(stall.id(), stall.x(), stall.y(), stall.z(), stall.type(), stall.vendorName());
+    }
+}
@@ -2,6 +2,7 @@ package com.pazar.backend.entity.mongo;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
 import java.util.Map;
 
 @Document(collection = "markets")
@@ -16,6 +17,9 @@ public class Market {
     private String openingHours;
     private Map<String, Object> map2D;
     private Map<String, Object> map3D;
+    // Changes whenever the map or a stall of the market changes; the map endpoint's ETag
+    private Long layoutVersion;
+    private Instant layoutUpdatedAt;
 
     public Market() {}
 
@@ -55,4 +59,10 @@ public class Market {
 
     public Map<String, Object> getMap3D() { return map3D; }
     public void setMap3D(Map<String, Object> map3D) { this.map3D = map3D; }
+
+    public Long getLayoutVersion() { return layoutVersion; }
+    public void setLayoutVersion(Long layoutVersion) { this.layoutVersion = layoutVersion; }
+
+    public Instant getLayoutUpdatedAt() { return layoutUpdatedAt; }
+    public void setLayoutUpdatedAt(Instant layoutUpdatedAt) { this.layoutUpdatedAt = layoutUpdatedAt; }
 }
@@ -1,9 +1,20 @@
 package com.pazar.backend.entity.mongo;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document(collection = "market_products")
+@CompoundIndexes({
+    // findByMarketId, findByProductIdAndMarketId, findByMarketIdAndProductIdIn; price keeps per-product listings ordered
+    @CompoundIndex(name = "market_product_price", def = "{'marketId': 1, 'productId': 1, 'price': 1}"),
+    // keyset pages and streams of one market, ordered by _id
+    @CompoundIndex(name = "market_id", def = "{'marketId': 1, '_id': 1}"),
+    // findByProductId
+    @CompoundIndex(name = "product", def = "{'productId': 1}")
+    // market_product_stall (unique, one listing per product and stall) is created by ListingIndexMigration
+})
 public class MarketProduct {
     @Id
     private String id;
@@ -15,6 +26,8 @@ public class MarketProduct {
     private Integer y;
     private Integer z;
     private String vendorName;
+    // Account that claimed the listing; null for seeded and imported listings, which only admins can price
+    private String sellerEmail;
 
     public MarketProduct() {}
 
@@ -45,4 +58,7 @@ public class MarketProduct {
 
     public String getVendorName() { return vendorName; }
     public void setVendorName(String vendorName) { this.vendorName = vendorName; }
+
+    public String getSellerEmail() { return sellerEmail; }
+    public void setSellerEmail(String sellerEmail) { this.sellerEmail = sellerEmail; }
 }
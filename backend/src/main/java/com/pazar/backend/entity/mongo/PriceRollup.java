@@ -0,0 +1,87 @@
+package com.pazar.backend.entity.mongo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Price aggregates of one product in one market (or in all markets) over one day: the day's
+ * min/max/sum/count and the same per hour of the day, keyed by the hour ({@code "0"} to {@code "23"}).
+ * Maintained by upserts with $min/$max/$inc, so ticks can be folded in any order; the average is
+ * {@code sum / count}. The id is derived from the key, so concurrent upserts cannot create duplicates.
+ */
+@Document(collection = "price_rollups")
+// findByProductIdAndMarketIdAndDayBetweenOrderByDayAsc
+@CompoundIndex(name = "product_market_day", def = "{'productId': 1, 'marketId': 1, 'day': 1}")
+public class PriceRollup {
+
+    /** {@code marketId} of the rollups across all markets. */
+    public static final String ALL_MARKETS = "*";
+
+    @Id
+    private String id;
+    private String productId;
+    private String marketId;
+    private Instant day;
+    private Stats daily;
+    private Map<String, Stats> hourly;
+
+    public PriceRollup() {}
+
+    public static String id(String productId, String marketId, LocalDate day) {
+        return productId + ":" + marketId + ":" + day;
+    }
+
+    public static class Stats {
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+        private double sum;
+        private long count;
+
+        public Stats() {}
+
+        public void add(double price) {
+            min = Math.min(min, price);
+            max = Math.max(max, price);
+            sum += price;
+            count++;
+        }
+
+        public double getAverage() { return count > 0 ? sum / count : 0; }
+
+        public double getMin() { return min; }
+        public void setMin(double min) { this.min = min; }
+
+        public double getMax() { return max; }
+        public void setMax(double max) { this.max = max; }
+
+        public double getSum() { return sum; }
+        public void setSum(double sum) { this.sum = sum; }
+
+        public long getCount() { return count; }
+        public void setCount(long count) { this.count = count; }
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public String getMarketId() { return marketId; }
+    public void setMarketId(String marketId) { this.marketId = marketId; }
+
+    public Instant getDay() { return day; }
+    public void setDay(Instant day) { this.day = day; }
+
+    public Stats getDaily() { return daily; }
+    public void setDaily(Stats daily) { this.daily = daily; }
+
+    public Map<String, Stats> getHourly() { return hourly; }
+    public void setHourly(Map<String, Stats> hourly) { this.hourly = hourly; }
+}
@@ -0,0 +1,44 @@
+package com.pazar.backend.entity.mongo;
+
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * One observed price of a listing: recorded when the listing is added or replaced and when its price
+ * changes. Stored in a time-series collection with {@code source} as the meta field, so the ticks of
+ * one stall's product are bucketed together. The collection is created by
+ * {@link com.pazar.backend.service.PriceHistoryService}, which also sets the retention.
+ */
+@Document(collection = "price_ticks")
+public class PriceTick {
+    private Instant time;
+    private Source source;
+    private String listingId;
+    private Double price;
+
+    public PriceTick() {}
+
+    public PriceTick(Instant time, MarketProduct listing) {
+        this.time = time;
+        this.source = new Source(listing.getMarketId(), listing.getProductId(), listing.getStallNumber());
+        this.listingId = listing.getId();
+        this.price = listing.getPrice();
+    }
+
+    /** Where the price was seen; the time-series meta field. */
+    public record Source(String marketId, String productId, String stallNumber) {}
+
+    // Getters and Setters
+    public Instant getTime() { return time; }
+    public void setTime(Instant time) { this.time = time; }
+
+    public Source getSource() { return source; }
+    public void setSource(Source source) { this.source = source; }
+
+    public String getListingId() { return listingId; }
+    public void setListingId(String listingId) { this.listingId = listingId; }
+
+    public Double getPrice() { return price; }
+    public void setPrice(Double price) { this.price = price; }
+}
@@ -0,0 +1,81 @@
+package com.pazar.backend.entity.mongo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.util.Map;
+
+@Document(collection = "stalls")
+@CompoundIndexes({
+    @CompoundIndex(name = "market_stall", def = "{'marketId': 1, 'stallId': 1}", unique = true),
+    @CompoundIndex(name = "market_position", def = "{'marketId': 1, 'x': 1, 'y': 1}")
+})
+public class Stall {
+    @Id
+    private String id;
+    private String marketId;
+    private String stallId;
+    private Double x;
+    private Double y;
+    private Double z;
+    private String type;
+    private String vendorName;
+
+    public Stall() {}
+
+    public Stall(String marketId, String stallId, Double x, Double y, Double z, String type, String vendorName) {
+        this.id = idOf(marketId, stallId);
+        this.marketId = marketId;
+        this.stallId = stallId;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.type = type;
+        this.vendorName = vendorName;
+    }
+
+    /** Document id derived from the natural key, so saving the same stall twice is an upsert. */
+    public static String idOf(String marketId, String stallId) {
+        return marketId + ":" + stallId;
+    }
+
+    /** Reads a stall in the legacy {@code map2D.stalls} shape; {@code null} when it has no id. */
+    public static Stall fromMap(String marketId, Map<?, ?> raw) {
+        if (raw.get("id") == null) return null;
+        return new Stall(marketId, raw.get("id").toString(),
+                number(raw.get("x")), number(raw.get("y")), number(raw.get("z")),
+                raw.get("type") != null ? raw.get("type").toString() : null,
+                raw.get("vendorName") != null ? raw.get("vendorName").toString() : null);
+    }
+
+    private static Double number(Object value) {
+        return value instanceof Number n ? n.doubleValue() : null;
+    }
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getMarketId() { return marketId; }
+    public void setMarketId(String marketId) { this.marketId = marketId; }
+
+    public String getStallId() { return stallId; }
+    public void setStallId(String stallId) { this.stallId = stallId; }
+
+    public Double getX() { return x; }
+    public void setX(Double x) { this.x = x; }
+
+    public Double getY() { return y; }
+    public void setY(Double y) { this.y = y; }
+
+    public Double getZ() { return z; }
+    public void setZ(Double z) { this.z = z; }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+
+    public String getVendorName() { return vendorName; }
+    public void setVendorName(String vendorName) { this.vendorName = vendorName; }
+}
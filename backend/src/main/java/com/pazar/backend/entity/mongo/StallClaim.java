@@ -0,0 +1,52 @@
+package com.pazar.backend.entity.mongo;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.Instant;
+
+/**
+ * A seller's stall claim, keyed by the client's idempotency key. It fixes every id the claim
+ * writes, so a retried claim repeats the same writes instead of creating new ones.
+ */
+@Document(collection = "stall_claims")
+public class StallClaim {
+    @Id
+    private String id;
+    private String marketId;
+    private String fingerprint;
+    private String productId;
+    private boolean newProduct;
+    private String listingId;
+    private String stallNumber;
+    @Indexed(expireAfter = "1d")
+    private Instant createdAt;
+
+    public StallClaim() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public String getMarketId() { return marketId; }
+    public void setMarketId(String marketId) { this.marketId = marketId; }
+
+    public String getFingerprint() { return fingerprint; }
+    public void setFingerprint(String fingerprint) { this.fingerprint = fingerprint; }
+
+    public String getProductId() { return productId; }
+    public void setProductId(String productId) { this.productId = productId; }
+
+    public boolean isNewProduct() { return newProduct; }
+    public void setNewProduct(boolean newProduct) { this.newProduct = newProduct; }
+
+    public String getListingId() { return listingId; }
+    public void setListingId(String listingId) { this.listingId = listingId; }
+
+    public String getStallNumber() { return stallNumber; }
+    public void setStallNumber(String stallNumber) { this.stallNumber = stallNumber; }
+
+    public Instant getCreatedAt() { return createdAt; }
+    public void setCreatedAt(Instant createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,128 @@
+package com.pazar.backend.filter;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Caps the concurrent requests of each endpoint group, so a slow query in one group (e.g. public
+ * search) cannot hold every worker thread and Mongo connection while seller and admin traffic waits.
+ * A request that gets no permit within the configured wait is answered with 503 and Retry-After.
+ * Runs ahead of Spring Security, so shed requests do not pay for token verification.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 1)
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkheadFilter.class);
+
+    public enum Group { SEARCH, SELLER, ADMIN }
+
+    private final Map<Group, Semaphore> permits = new EnumMap<>(Group.class);
+    private final long maxWaitNanos;
+
+    public BulkheadFilter(@Value("${pazar.bulkhead.search.max-concurrent:50}") int searchLimit,
+                          @Value("${pazar.bulkhead.seller.max-concurrent:30}") int sellerLimit,
+                          @Value("${pazar.bulkhead.admin.max-concurrent:10}") int adminLimit,
+                          @Value("${pazar.bulkhead.max-wait:200ms}") Duration maxWait) {
+        permits.put(Group.SEARCH, new Semaphore(searchLimit));
+        permits.put(Group.SELLER, new Semaphore(sellerLimit));
+        permits.put(Group.ADMIN, new Semaphore(adminLimit));
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    /** The bulkhead group of a request, or {@code null} for requests that are not limited. */
+    static Group groupOf(HttpServletRequest request) {
+        if ("OPTIONS".equals(request.getMethod())) return null; // CORS preflight
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (path.startsWith("/api/products/search")) return Group.SEARCH;
+        if (path.startsWith("/api/seller/")) return Group.SELLER;
+        if (path.startsWith("/api/admin/")) return Group.ADMIN;
+        return null;
+    }
+
+    public int available(Group group) {
+        return permits.get(group).availablePermits();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Group group = groupOf(request);
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        Semaphore semaphore = permits.get(group);
+        boolean acquired;
+        try {
+            acquired = semaphore.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response, group);
+            return;
+        }
+
+        // Released exactly once: at the end of this call, or when an async (Mono/Flux) request completes
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) semaphore.release();
+        };
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        release.run();
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {}
+
+                    @Override
+                    public void onError(AsyncEvent event) {}
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {}
+                });
+            } else {
+                release.run();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, Group group) throws IOException {
+        log.debug("Bulkhead {} full, rejecting request", group);
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"success\":false,\"message\":\"Server is busy, please retry\"}");
+    }
+}
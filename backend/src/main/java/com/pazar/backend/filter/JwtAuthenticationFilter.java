@@ -1,6 +1,8 @@
 package com.pazar.backend.filter;
 
 import com.pazar.backend.service.JwtService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -15,6 +17,7 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -22,6 +25,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -33,25 +39,24 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        try {
-            final String jwt = authHeader.substring(7);
-            final String email = jwtService.extractEmail(jwt);
-            final String role = jwtService.extractRole(jwt);
-
-            if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                if (jwtService.validateToken(jwt)) {
-                    UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            email,
-                            null,
-                            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role))
-                    );
-                    authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    SecurityContextHolder.getContext().setAuthentication(authToken);
-                }
+        final String jwt = authHeader.substring(7);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        Optional<JwtService.VerifiedToken> token = jwtService.verify(jwt);
+        token.ifPresent(verified -> {
+            if (verified.email() != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                        verified.email(),
+                        null,
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + verified.role()))
+                );
+                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                SecurityContextHolder.getContext().setAuthentication(authToken);
             }
-        } catch (Exception e) {
-            logger.error("JWT token validation failed", e);
-        }
+        });
+        sample.stop(Timer.builder("pazar.jwt.filter")
+                .description("Bearer token verification in the authentication filter")
+                .tag("outcome", token.isPresent() ? "authenticated" : "rejected")
+                .register(meterRegistry));
 
         filterChain.doFilter(request, response);
     }
@@ -1,19 +1,38 @@
 package com.pazar.backend.repository;
 
 import com.pazar.backend.entity.mongo.MarketProduct;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface MarketProductRepository extends MongoRepository<MarketProduct, String> {
     
     List<MarketProduct> findByMarketId(String marketId);
+
+    List<MarketProduct> findByMarketIdOrderByIdAsc(String marketId, Limit limit);
+
+    List<MarketProduct> findByMarketIdAndIdGreaterThanOrderByIdAsc(String marketId, String afterId, Limit limit);
+
+    Stream<MarketProduct> streamByMarketIdOrderByIdAsc(String marketId);
+
+    List<MarketProduct> findAllByOrderByIdAsc(Limit limit);
+
+    List<MarketProduct> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
     
     List<MarketProduct> findByProductId(String productId);
     
     List<MarketProduct> findByProductIdAndMarketId(String productId, String marketId);
+
+    List<MarketProduct> findByMarketIdAndProductIdIn(String marketId, Collection<String> productIds);
+
+    List<MarketProduct> findByMarketIdAndIdIn(String marketId, Collection<String> ids);
     
-    void deleteByMarketIdAndProductIdAndStallNumber(String marketId, String productId, String stallNumber);
+    List<MarketProduct> deleteByMarketIdAndProductIdAndStallNumber(String marketId, String productId, String stallNumber);
+
+    long deleteByMarketId(String marketId);
 }
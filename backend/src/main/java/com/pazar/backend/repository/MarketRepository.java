@@ -1,9 +1,26 @@
 package com.pazar.backend.repository;
 
 import com.pazar.backend.entity.mongo.Market;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
 @Repository
 public interface MarketRepository extends MongoRepository<Market, String> {
+
+    List<Market> findAllByOrderByIdAsc(Limit limit);
+
+    List<Market> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+
+    Stream<Market> streamAllByOrderByIdAsc();
+
+    @Query("{ '_id' : ?0 }")
+    @Update("{ '$set' : { 'layoutVersion' : ?1, 'layoutUpdatedAt' : ?2 } }")
+    long updateLayoutVersionById(String id, long layoutVersion, Instant layoutUpdatedAt);
 }
@@ -0,0 +1,15 @@
+package com.pazar.backend.repository;
+
+import com.pazar.backend.entity.mongo.PriceRollup;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface PriceRollupRepository extends MongoRepository<PriceRollup, String> {
+
+    List<PriceRollup> findByProductIdAndMarketIdAndDayBetweenOrderByDayAsc(String productId, String marketId, Range<Instant> days);
+}
@@ -1,17 +1,21 @@
 package com.pazar.backend.repository;
 
 import com.pazar.backend.entity.mongo.Product;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.mongodb.repository.MongoRepository;
-import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends MongoRepository<Product, String> {
     
     List<Product> findByCategoryIgnoreCase(String category);
-    
-    @Query("{ $or: [ { 'name': { $regex: ?0, $options: 'i' } }, { 'category': { $regex: ?0, $options: 'i' } } ] }")
-    List<Product> searchByNameOrCategory(String query);
+
+    List<Product> findAllByOrderByIdAsc(Limit limit);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+
+    Stream<Product> streamAllByOrderByIdAsc();
 }
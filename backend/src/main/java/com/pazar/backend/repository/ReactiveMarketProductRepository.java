@@ -0,0 +1,14 @@
+package com.pazar.backend.repository;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.util.Collection;
+
+@Repository
+public interface ReactiveMarketProductRepository extends ReactiveMongoRepository<MarketProduct, String> {
+
+    Flux<MarketProduct> findByMarketIdAndProductIdIn(String marketId, Collection<String> productIds);
+}
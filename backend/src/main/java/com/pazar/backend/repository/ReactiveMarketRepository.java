@@ -0,0 +1,15 @@
+package com.pazar.backend.repository;
+
+import com.pazar.backend.entity.mongo.Market;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+@Repository
+public interface ReactiveMarketRepository extends ReactiveMongoRepository<Market, String> {
+
+    /** Only the id and layout version fields, for conditional requests. */
+    @Query(value = "{ '_id' : ?0 }", fields = "{ 'layoutVersion' : 1, 'layoutUpdatedAt' : 1 }")
+    Mono<Market> findLayoutVersionById(String id);
+}
@@ -0,0 +1,9 @@
+package com.pazar.backend.repository;
+
+import com.pazar.backend.entity.mongo.Product;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ReactiveProductRepository extends ReactiveMongoRepository<Product, String> {
+}
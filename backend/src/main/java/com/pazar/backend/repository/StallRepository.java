@@ -0,0 +1,22 @@
+package com.pazar.backend.repository;
+
+import com.pazar.backend.entity.mongo.Stall;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface StallRepository extends MongoRepository<Stall, String> {
+
+    List<Stall> findByMarketIdOrderByStallIdAsc(String marketId);
+
+    long deleteByMarketIdAndStallId(String marketId, String stallId);
+
+    long deleteByMarketId(String marketId);
+
+    List<Stall> findAllByOrderByIdAsc(Limit limit);
+
+    List<Stall> findByIdGreaterThanOrderByIdAsc(String afterId, Limit limit);
+}
@@ -0,0 +1,36 @@
+package com.pazar.backend.service;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/** Hit and miss counts and current size of one of the in-memory caches, exported as {@code cache.*} metrics. */
+public final class CacheStatistics {
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final IntSupplier size;
+
+    public CacheStatistics(IntSupplier size) {
+        this.size = size;
+    }
+
+    public void hit() {
+        hits.increment();
+    }
+
+    public void miss() {
+        misses.increment();
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return size.getAsInt();
+    }
+}
@@ -0,0 +1,190 @@
+package com.pazar.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Time-ordered, node-aware 64-bit ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and 12 bits of per-millisecond sequence (4096 ids per ms per node).
+ *
+ * Timestamp and sequence share one AtomicLong, so issuing an id is a single CAS. When the sequence runs
+ * out, the increment carries into the timestamp, i.e. the generator borrows the next millisecond; a clock
+ * that steps backwards is handled the same way, ids keep increasing from the last one issued.
+ * Ids are rendered as fixed-width base-36, so string order (used by keyset paging on _id) is time order.
+ *
+ * The node id is {@code pazar.id.node} when set. Otherwise the instance leases one from the {@code counters}
+ * collection: a shared {@code $inc} picks where to start looking, and the node is taken with one atomic
+ * upsert of its {@code id-node:<n>} document, which only matches when that lease is free or expired (a
+ * held lease makes the upsert fail on the duplicate _id). The lease is taken on the first id, not at
+ * startup, so the context starts without Mongo; a failed attempt is retried by the next id. It is renewed
+ * in the background and released on shutdown; a renewal that finds it taken over (e.g. after a long
+ * pause) leases a new node. Ids cannot be issued while all 1024 nodes are leased.
+ */
+@Component
+public class IdGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(IdGenerator.class);
+
+    private static final long EPOCH = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    private static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final int WIDTH = Long.toString(Long.MAX_VALUE, 36).length();
+
+    private static final String COLLECTION = "counters";
+
+    private final MongoTemplate mongoTemplate; // null for a fixed node
+    private final Duration leaseDuration;
+    private final String owner;
+    private volatile long node; // -1 until leased
+    private final AtomicLong state = new AtomicLong(); // (millis since EPOCH << SEQUENCE_BITS) | sequence
+
+    /** A fixed node id, no lease. */
+    public IdGenerator(long node) {
+        this(node, null, Duration.ZERO);
+    }
+
+    @Autowired
+    public IdGenerator(@Value("${pazar.id.node:-1}") long node,
+                       MongoTemplate mongoTemplate,
+                       @Value("${pazar.id.lease-duration:PT1M}") Duration leaseDuration) {
+        if (node > MAX_NODE) throw new IllegalArgumentException("pazar.id.node must be between 0 and " + MAX_NODE);
+        if (node < 0 && mongoTemplate == null) throw new IllegalArgumentException("A node id is needed without Mongo");
+        this.leaseDuration = leaseDuration;
+        this.owner = ownerName();
+        if (node >= 0) {
+            this.mongoTemplate = null;
+            this.node = node;
+        } else {
+            this.mongoTemplate = mongoTemplate;
+            this.node = -1;
+        }
+    }
+
+    public long node() {
+        long current = node;
+        return current >= 0 ? current : leaseNode();
+    }
+
+    public long nextLong() {
+        long node = node();
+        while (true) {
+            long current = state.get();
+            long now = System.currentTimeMillis() - EPOCH;
+            long next = now > current >>> SEQUENCE_BITS ? now << SEQUENCE_BITS : current + 1;
+            if (state.compareAndSet(current, next)) {
+                return (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                        | node << SEQUENCE_BITS
+                        | (next & ((1L << SEQUENCE_BITS) - 1));
+            }
+        }
+    }
+
+    /** {@code prefix} followed by the id as fixed-width base-36, e.g. {@code prod_00kxl2f1c0ax4}. */
+    public String nextId(String prefix) {
+        String digits = Long.toString(nextLong(), 36);
+        StringBuilder id = new StringBuilder(prefix.length() + WIDTH).append(prefix);
+        for (int i = digits.length(); i < WIDTH; i++) id.append('0');
+        return id.append(digits).toString();
+    }
+
+    /** Extends the lease well before it expires; takes a new node when another instance took this one over. */
+    @Scheduled(initialDelayString = "${pazar.id.lease-renew-interval:PT20S}",
+               fixedDelayString = "${pazar.id.lease-renew-interval:PT20S}")
+    public void renewLease() {
+        long current = node;
+        if (mongoTemplate == null || current < 0) return;
+        try {
+            boolean renewed = mongoTemplate.updateFirst(leaseQuery(current).addCriteria(where("owner").is(owner)),
+                    new Update().set("expiresAt", expiry()), COLLECTION).getMatchedCount() > 0;
+            if (!renewed) {
+                node = lease();
+                log.error("Lease on id node {} was lost, continuing with node {}", current, node);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Renewing the lease on id node {} failed: {}", node, e.toString());
+        }
+    }
+
+    @PreDestroy
+    public void releaseLease() {
+        if (mongoTemplate == null || node < 0) return;
+        try {
+            mongoTemplate.remove(leaseQuery(node).addCriteria(where("owner").is(owner)), COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Releasing the lease on id node {} failed, it expires in {}", node, leaseDuration);
+        }
+    }
+
+    private synchronized long leaseNode() {
+        if (node < 0) {
+            node = lease();
+            log.info("Leased id node {} as {}", node, owner);
+        }
+        return node;
+    }
+
+    private long lease() {
+        Document start = mongoTemplate.findAndModify(
+                query(where("_id").is("id-node")),
+                new Update().inc("value", 1),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COLLECTION);
+        long first = ((Number) start.get("value")).longValue();
+        for (long i = 0; i <= MAX_NODE; i++) {
+            long candidate = (first + i) & MAX_NODE;
+            try {
+                mongoTemplate.upsert(
+                        leaseQuery(candidate).addCriteria(new Criteria()
+                                .orOperator(where("expiresAt").lt(new Date()), where("owner").is(owner))),
+                        new Update().set("owner", owner).set("expiresAt", expiry()),
+                        COLLECTION);
+                return candidate;
+            } catch (DuplicateKeyException e) {
+                // held by a live instance
+            }
+        }
+        throw new IllegalStateException("All " + (MAX_NODE + 1) + " id nodes are leased; set pazar.id.node explicitly");
+    }
+
+    private static Query leaseQuery(long node) {
+        return query(where("_id").is("id-node:" + node));
+    }
+
+    private Date expiry() {
+        return Date.from(Instant.now().plus(leaseDuration));
+    }
+
+    private static String ownerName() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "/" + ManagementFactory.getRuntimeMXBean().getPid() + "/" + UUID.randomUUID();
+    }
+}
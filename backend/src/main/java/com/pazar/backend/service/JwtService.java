@@ -1,16 +1,25 @@
 package com.pazar.backend.service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 @Service
@@ -22,8 +31,26 @@ public class JwtService {
     @Value("${jwt.expiration:86400000}") // 24 saat
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.cache.max-entries:10000}")
+    private int cacheMaxEntries;
+
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Verified tokens keyed by SHA-256 digest of the compact token, valid until the token's exp
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final CacheStatistics cacheStatistics = new CacheStatistics(verifiedTokens::size);
+
+    public record VerifiedToken(String email, String role, Instant expiresAt) {
+        boolean isExpired(Instant now) {
+            return expiresAt != null && !expiresAt.isAfter(now);
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
     }
 
     public String generateToken(String email, String role) {
@@ -39,10 +66,65 @@ public class JwtService {
                 .subject(subject)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
+    /**
+     * Parses and verifies the token once and returns its subject and role; repeat calls with the
+     * same token are answered from the cache until the token expires. Empty for invalid tokens.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        Instant now = Instant.now();
+        String digest = digest(token);
+
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                cacheStatistics.hit();
+                return Optional.of(cached);
+            }
+            verifiedTokens.remove(digest, cached);
+        }
+        cacheStatistics.miss();
+
+        Claims claims;
+        try {
+            claims = extractAllClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+        Date exp = claims.getExpiration();
+        VerifiedToken verified = new VerifiedToken(
+                claims.getSubject(),
+                claims.get("role", String.class),
+                exp != null ? exp.toInstant() : null);
+        cache(digest, verified, now);
+        return Optional.of(verified);
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
+    private void cache(String digest, VerifiedToken verified, Instant now) {
+        if (verified.expiresAt() == null) return; // only tokens that expire on their own
+        if (verifiedTokens.size() >= cacheMaxEntries) {
+            verifiedTokens.values().removeIf(token -> token.isExpired(now));
+            if (verifiedTokens.size() >= cacheMaxEntries) return;
+        }
+        verifiedTokens.put(digest, verified);
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
     public String extractEmail(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -62,28 +144,14 @@ public class JwtService {
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return parser.parseSignedClaims(token).getPayload();
     }
 
     public Boolean validateToken(String token, String email) {
-        final String tokenEmail = extractEmail(token);
-        return (tokenEmail.equals(email) && !isTokenExpired(token));
+        return verify(token).map(verified -> verified.email().equals(email)).orElse(false);
     }
 
     public Boolean validateToken(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+        return verify(token).isPresent();
     }
 }
-
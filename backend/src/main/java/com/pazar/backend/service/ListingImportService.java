@@ -0,0 +1,281 @@
+package com.pazar.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.dto.ImportReport;
+import com.pazar.backend.dto.MarketProductRequest;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.repository.MarketRepository;
+import com.mongodb.bulk.BulkWriteError;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Bulk import of market listings from a CSV or NDJSON request body.
+ *
+ * The body is read line by line and written in unordered bulk inserts of {@code pazar.import.batch-size}
+ * rows. Only one batch is held in memory, and the request stream is not read further until the batch is
+ * written, so a fast client is held back by Mongo (backpressure through the socket) instead of filling the heap.
+ * Invalid rows and rows rejected by Mongo (e.g. unique index) are reported by line; the rest are imported.
+ * The products of a batch are looked up in Mongo with one {@code $in} query before it is written.
+ */
+@Service
+public class ListingImportService {
+
+    public enum Format { CSV, NDJSON }
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+    private static final List<String> CSV_COLUMNS = List.of("id", "productId", "price", "stallNumber", "x", "y", "z", "vendorName");
+
+    private final MongoTemplate mongoTemplate;
+    private final MarketRepository marketRepository;
+    private final MarketPriceBook marketPriceBook;
+    private final MarketStatistics marketStatistics;
+    private final MarketEventHub marketEventHub;
+    private final PriceHistoryService priceHistoryService;
+    private final ObjectMapper objectMapper;
+    private final IdGenerator idGenerator;
+    private final int batchSize;
+
+    public ListingImportService(MongoTemplate mongoTemplate,
+                                MarketRepository marketRepository,
+                                MarketPriceBook marketPriceBook,
+                                MarketStatistics marketStatistics,
+                                MarketEventHub marketEventHub,
+                                PriceHistoryService priceHistoryService,
+                                ObjectMapper objectMapper,
+                                IdGenerator idGenerator,
+                                @Value("${pazar.import.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.marketRepository = marketRepository;
+        this.marketPriceBook = marketPriceBook;
+        this.marketStatistics = marketStatistics;
+        this.marketEventHub = marketEventHub;
+        this.priceHistoryService = priceHistoryService;
+        this.objectMapper = objectMapper;
+        this.idGenerator = idGenerator;
+        this.batchSize = batchSize;
+    }
+
+    /** Returns {@code null} when the market does not exist. */
+    public ImportReport importListings(String marketId, InputStream body, Format format) throws IOException {
+        if (!marketRepository.existsById(marketId)) return null;
+
+        long start = System.nanoTime();
+        Run run = new Run();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8))) {
+            Map<String, Integer> header = null;
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                if (format == Format.CSV && header == null) {
+                    header = parseHeader(line, lineNumber, run);
+                    if (header == null) break;
+                    continue;
+                }
+                run.rowsRead++;
+                try {
+                    MarketProductRequest row = format == Format.CSV ? parseCsvRow(line, header) : parseJsonRow(line);
+                    run.add(lineNumber, validate(marketId, row));
+                } catch (IllegalArgumentException e) {
+                    run.reject(lineNumber, e.getMessage());
+                }
+                if (run.batch.size() >= batchSize) run.flush();
+            }
+        }
+        run.flush();
+
+        long elapsedMillis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        return new ImportReport(marketId, run.rowsRead, run.imported, run.rejected, run.errors,
+                run.rejected > run.errors.size(), elapsedMillis, run.imported * 1000.0 / elapsedMillis);
+    }
+
+    private MarketProduct validate(String marketId, MarketProductRequest row) {
+        if (row.productId() == null || row.productId().isBlank()) {
+            throw new IllegalArgumentException("productId is required");
+        }
+        if (row.price() == null || !Double.isFinite(row.price()) || row.price() <= 0) {
+            throw new IllegalArgumentException("price must be a positive number");
+        }
+        if (row.stallNumber() == null || row.stallNumber().isBlank()) {
+            throw new IllegalArgumentException("stallNumber is required");
+        }
+        MarketProduct listing = row.toEntity(marketId);
+        if (listing.getId() == null) listing.setId(idGenerator.nextId("lst_"));
+        return listing;
+    }
+
+    private MarketProductRequest parseJsonRow(String line) {
+        try {
+            return objectMapper.readValue(line, MarketProductRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("invalid JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private Map<String, Integer> parseHeader(String line, long lineNumber, Run run) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = splitCsv(line.startsWith("\uFEFF") ? line.substring(1) : line);
+        for (int i = 0; i < names.size(); i++) {
+            int index = i;
+            String name = names.get(i).trim();
+            CSV_COLUMNS.stream().filter(name::equalsIgnoreCase).findFirst().ifPresent(column -> header.put(column, index));
+        }
+        if (!header.containsKey("productId") || !header.containsKey("price")) {
+            run.reject(lineNumber, "CSV header must name at least the productId and price columns, got: " + line);
+            return null;
+        }
+        return header;
+    }
+
+    private static MarketProductRequest parseCsvRow(String line, Map<String, Integer> header) {
+        List<String> cells = splitCsv(line);
+        return new MarketProductRequest(
+                cell(cells, header, "id"),
+                cell(cells, header, "productId"),
+                number(cell(cells, header, "price"), "price"),
+                cell(cells, header, "stallNumber"),
+                integer(cell(cells, header, "x"), "x"),
+                integer(cell(cells, header, "y"), "y"),
+                integer(cell(cells, header, "z"), "z"),
+                cell(cells, header, "vendorName"));
+    }
+
+    private static String cell(List<String> cells, Map<String, Integer> header, String column) {
+        Integer index = header.get(column);
+        if (index == null || index >= cells.size()) return null;
+        String value = cells.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Double number(String value, String column) {
+        if (value == null) return null;
+        try {
+            return Double.valueOf(value.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number: " + value);
+        }
+    }
+
+    private static Integer integer(String value, String column) {
+        Double number = number(value, column);
+        return number != null ? (int) Math.round(number) : null;
+    }
+
+    /** RFC 4180 fields of one line: quoted fields may contain commas and doubled quotes, not line breaks. */
+    private static List<String> splitCsv(String line) {
+        List<String> cells = new ArrayList<>();
+        StringBuilder cell = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    cell.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    cell.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                cells.add(cell.toString());
+                cell.setLength(0);
+            } else {
+                cell.append(c);
+            }
+        }
+        cells.add(cell.toString());
+        return cells;
+    }
+
+    /** State of one import: the pending batch and the running totals. */
+    private final class Run {
+        final List<MarketProduct> batch = new ArrayList<>();
+        final List<Long> batchLines = new ArrayList<>();
+        final List<ImportReport.RowError> errors = new ArrayList<>();
+        long rowsRead;
+        long imported;
+        long rejected;
+
+        void add(long line, MarketProduct listing) {
+            batch.add(listing);
+            batchLines.add(line);
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) errors.add(new ImportReport.RowError(line, message));
+        }
+
+        void flush() {
+            dropUnknownProducts();
+            if (batch.isEmpty()) return;
+            Set<Integer> failed = new HashSet<>();
+            try {
+                mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MarketProduct.class).insert(batch).execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    failed.add(error.getIndex());
+                    reject(batchLines.get(error.getIndex()), error.getMessage());
+                }
+            }
+
+            List<MarketProduct> inserted = new ArrayList<>(batch.size() - failed.size());
+            for (int i = 0; i < batch.size(); i++) {
+                if (!failed.contains(i)) inserted.add(batch.get(i));
+            }
+            marketPriceBook.listingsAdded(inserted);
+            inserted.forEach(marketStatistics::listingAdded);
+            marketEventHub.listingsAdded(inserted);
+            priceHistoryService.listingsAdded(inserted);
+            imported += inserted.size();
+            batch.clear();
+            batchLines.clear();
+        }
+
+        /** Rejects the rows of the batch whose product does not exist. */
+        private void dropUnknownProducts() {
+            if (batch.isEmpty()) return;
+            Set<String> productIds = new HashSet<>();
+            batch.forEach(listing -> productIds.add(listing.getProductId()));
+            Query existing = query(where("_id").in(productIds));
+            existing.fields().include("_id");
+            Set<String> known = new HashSet<>();
+            mongoTemplate.find(existing, Product.class).forEach(product -> known.add(product.getId()));
+            if (known.size() == productIds.size()) return;
+
+            int kept = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                String productId = batch.get(i).getProductId();
+                if (known.contains(productId)) {
+                    batch.set(kept, batch.get(i));
+                    batchLines.set(kept++, batchLines.get(i));
+                } else {
+                    reject(batchLines.get(i), "unknown productId " + productId);
+                }
+            }
+            batch.subList(kept, batch.size()).clear();
+            batchLines.subList(kept, batchLines.size()).clear();
+        }
+    }
+}
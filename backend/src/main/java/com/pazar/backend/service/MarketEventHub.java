@@ -0,0 +1,290 @@
+package com.pazar.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.dto.MarketProductResponse;
+import com.pazar.backend.dto.StallResponse;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Stall;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-market live feed over server-sent events.
+ *
+ * The write paths report changes after they have been persisted, like they do to {@link MarketPriceBook}.
+ * Each event is serialized once and collected in its market's pending batch, keyed so that a newer
+ * event for the same listing or stall replaces the older one. A scheduled flush hands every batch to
+ * the market's subscribers. A subscriber that is still writing the previous batch merges the new one
+ * into its own backlog, so a slow consumer skips intermediate prices instead of queueing them. A
+ * backlog is bounded: when it overflows it is replaced by a single {@code resync} event that tells
+ * the client to reload. An idle subscriber holds only its emitter and a few fields.
+ *
+ * The blocking writes run on the hub's own virtual threads, at most one per subscriber, whatever the
+ * execution mode: slow clients then cost parked virtual threads, never threads of the shared blocking
+ * scheduler that claims and cache loads wait on.
+ */
+@Component
+public class MarketEventHub {
+
+    private static final String RESYNC = "resync";
+
+    private record Event(String type, String key, long id, String data) {}
+
+    private final ObjectMapper objectMapper;
+    private final ExecutorService writers = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sse-", 0).factory());
+    private final Map<String, Channel> channels = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final long timeoutMillis;
+
+    public MarketEventHub(ObjectMapper objectMapper,
+                          @Value("${pazar.events.max-subscribers:50000}") int maxSubscribers,
+                          @Value("${pazar.events.max-pending:256}") int maxPending,
+                          @Value("${pazar.events.timeout:PT1H}") Duration timeout) {
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        this.timeoutMillis = timeout.toMillis();
+    }
+
+    /** A new subscription to the market's events, or {@code null} when this instance holds the maximum already. */
+    public SseEmitter subscribe(String marketId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(marketId, emitter);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        try {
+            // Sent right away so the response is committed and the client sees the stream open
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            subscriberCount.decrementAndGet();
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        channels.compute(marketId, (id, channel) -> {
+            Channel current = channel != null ? channel : new Channel();
+            current.subscribers.add(subscriber);
+            return current;
+        });
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscriberCount.get();
+    }
+
+    /** A new listing, or a listing replaced as a whole; clients upsert it by id. */
+    public void listingAdded(MarketProduct listing) {
+        publish(listing.getMarketId(), "listing-added", "listing:" + listing.getId(), MarketProductResponse.from(listing));
+    }
+
+    public void listingsAdded(Collection<MarketProduct> listings) {
+        listings.forEach(this::listingAdded);
+    }
+
+    public void listingsRemoved(Collection<MarketProduct> listings) {
+        for (MarketProduct listing : listings) {
+            publish(listing.getMarketId(), "listing-removed", "listing:" + listing.getId(), MarketProductResponse.from(listing));
+        }
+    }
+
+    public void pricesChanged(Collection<MarketProduct> listings) {
+        for (MarketProduct listing : listings) {
+            publish(listing.getMarketId(), "price-changed", "price:" + listing.getId(), MarketProductResponse.from(listing));
+        }
+    }
+
+    public void stallAdded(Stall stall) {
+        publish(stall.getMarketId(), "stall-added", "stall:" + stall.getStallId(), StallResponse.from(stall));
+    }
+
+    public void stallRemoved(String marketId, String stallId) {
+        publish(marketId, "stall-removed", "stall:" + stallId, new StallResponse(stallId, null, null, null, null, null));
+    }
+
+    /** The market's map or its whole stall list was replaced; clients reload the map. */
+    public void mapChanged(String marketId) {
+        publish(marketId, "map-changed", "map", Map.of("marketId", marketId));
+    }
+
+    /** Ends all subscriptions of a deleted market. */
+    public void marketDeleted(String marketId) {
+        Channel channel = channels.remove(marketId);
+        if (channel != null) channel.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    @Scheduled(fixedDelayString = "${pazar.events.flush-interval:PT0.25S}")
+    public void flush() {
+        channels.values().forEach(channel -> {
+            List<Event> batch = channel.drain();
+            if (!batch.isEmpty()) channel.subscribers.forEach(subscriber -> subscriber.offer(batch, false));
+        });
+    }
+
+    /** Keeps idle connections open through proxies and finds the ones whose client has gone. */
+    @Scheduled(fixedRateString = "${pazar.events.heartbeat-interval:PT25S}")
+    public void heartbeat() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.offer(List.of(), true)));
+    }
+
+    /** Closes the streams on shutdown, so clients reconnect to another instance instead of waiting. */
+    @PreDestroy
+    public void close() {
+        channels.values().forEach(channel -> channel.subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        channels.clear();
+        writers.shutdownNow();
+    }
+
+    private void publish(String marketId, String type, String key, Object payload) {
+        Channel channel = channels.get(marketId);
+        if (channel == null) return; // nobody listens, skip the serialization as well
+        channel.add(event(type, key, payload));
+    }
+
+    private Event event(String type, String key, Object payload) {
+        try {
+            return new Event(type, key, sequence.incrementAndGet(), objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Event " + type + " cannot be serialized", e);
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) return;
+        subscriberCount.decrementAndGet();
+        channels.computeIfPresent(subscriber.marketId, (id, channel) -> {
+            channel.subscribers.remove(subscriber);
+            return channel.subscribers.isEmpty() ? null : channel;
+        });
+    }
+
+    private final class Channel {
+        final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+        private Map<String, Event> pending = new LinkedHashMap<>(); // guarded by this
+
+        synchronized void add(Event event) {
+            if (pending.containsKey(RESYNC)) return;
+            pending.put(event.key(), event);
+            if (pending.size() > maxPending) {
+                pending = new LinkedHashMap<>();
+                pending.put(RESYNC, event(RESYNC, RESYNC, Map.of()));
+            }
+        }
+
+        synchronized List<Event> drain() {
+            if (pending.isEmpty()) return List.of();
+            List<Event> batch = List.copyOf(pending.values());
+            pending = new LinkedHashMap<>();
+            return batch;
+        }
+    }
+
+    private final class Subscriber {
+        final String marketId;
+        final SseEmitter emitter;
+        final AtomicBoolean closed = new AtomicBoolean();
+        // Guarded by this. A batch that finds the subscriber idle is shared as is; only batches that
+        // arrive while a write is in progress are merged into a per-subscriber backlog
+        private List<Event> ready;
+        private Map<String, Event> backlog;
+        private boolean resync;
+        private boolean heartbeat;
+        private boolean sending;
+
+        Subscriber(String marketId, SseEmitter emitter) {
+            this.marketId = marketId;
+            this.emitter = emitter;
+        }
+
+        void offer(List<Event> events, boolean ping) {
+            synchronized (this) {
+                if (!resync && !events.isEmpty()) {
+                    if (events.get(0).type().equals(RESYNC)) {
+                        resync = true;
+                    } else if (ready == null && backlog == null) {
+                        ready = events;
+                    } else {
+                        if (backlog == null) {
+                            backlog = new LinkedHashMap<>();
+                            ready.forEach(event -> backlog.put(event.key(), event));
+                            ready = null;
+                        }
+                        events.forEach(event -> backlog.put(event.key(), event));
+                        // Events dropped here are persisted already, so the reload the client does on resync sees them
+                        if (backlog.size() > maxPending) resync = true;
+                    }
+                    if (resync) {
+                        ready = null;
+                        backlog = null;
+                    }
+                }
+                heartbeat |= ping;
+                if (sending || closed.get()) return;
+                sending = true;
+            }
+            try {
+                writers.execute(this::send);
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    sending = false; // retried with the next batch or heartbeat
+                }
+            }
+        }
+
+        private void send() {
+            while (true) {
+                Collection<Event> events;
+                boolean sendResync, ping;
+                synchronized (this) {
+                    if (ready == null && backlog == null && !resync && !heartbeat) {
+                        sending = false;
+                        return;
+                    }
+                    events = ready != null ? ready : backlog != null ? backlog.values() : List.of();
+                    sendResync = resync;
+                    ping = heartbeat;
+                    ready = null;
+                    backlog = null;
+                    resync = false;
+                    heartbeat = false;
+                }
+                try {
+                    if (sendResync) {
+                        emitter.send(SseEmitter.event().name(RESYNC).data("{}"));
+                    } else {
+                        for (Event event : events) {
+                            emitter.send(SseEmitter.event().id(Long.toString(event.id())).name(event.type()).data(event.data()));
+                        }
+                    }
+                    if (ping) emitter.send(SseEmitter.event().comment("ping"));
+                } catch (IOException | IllegalStateException e) {
+                    // Client gone or emitter already completed: stay "sending" so nothing is scheduled again
+                    unsubscribe(this);
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.pazar.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.dto.MarketMapResponse;
+import com.pazar.backend.dto.StallResponse;
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.repository.ReactiveMarketRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Serialized market maps, kept per market for its current layout version as raw and gzip-encoded JSON,
+ * so repeated map requests do no encoding at all. The current version is read with a projection of
+ * just the version fields; the full market document is only loaded when that version is not cached.
+ */
+@Component
+public class MarketMapCache {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketMapCache.class);
+
+    /** The layout version of a market; {@code value} is {@code null} for a market that has none yet. */
+    public record Version(Long value, Instant updatedAt) {
+        public String etag() {
+            return value != null ? "W/\"" + Long.toString(value, 36) + "\"" : null;
+        }
+    }
+
+    public record Snapshot(Version version, byte[] json, byte[] gzip) {}
+
+    private final ReactiveMarketRepository reactiveMarketRepository;
+    private final MarketStallIndex marketStallIndex;
+    private final MongoTemplate mongoTemplate;
+    private final IdGenerator idGenerator;
+    private final ObjectMapper objectMapper;
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final CacheStatistics cacheStatistics = new CacheStatistics(snapshots::size);
+
+    public MarketMapCache(ReactiveMarketRepository reactiveMarketRepository,
+                          MarketStallIndex marketStallIndex,
+                          MongoTemplate mongoTemplate,
+                          IdGenerator idGenerator,
+                          ObjectMapper objectMapper) {
+        this.reactiveMarketRepository = reactiveMarketRepository;
+        this.marketStallIndex = marketStallIndex;
+        this.mongoTemplate = mongoTemplate;
+        this.idGenerator = idGenerator;
+        this.objectMapper = objectMapper;
+    }
+
+    /** Markets stored before layout versions existed get one, so their maps can be cached too; run by StartupTasks. */
+    public void assignMissingVersions() {
+        long updated = mongoTemplate.updateMulti(query(where("layoutVersion").exists(false)),
+                new Update().set("layoutVersion", idGenerator.nextLong()).set("layoutUpdatedAt", Instant.now()),
+                Market.class).getModifiedCount();
+        if (updated > 0) log.info("Assigned layout versions to {} markets", updated);
+    }
+
+    /** Current layout version of the market; empty when the market does not exist. */
+    public Mono<Version> version(String marketId) {
+        return reactiveMarketRepository.findLayoutVersionById(marketId)
+                .map(market -> new Version(market.getLayoutVersion(), market.getLayoutUpdatedAt()));
+    }
+
+    /**
+     * The serialized map for {@code current}, the version just read with {@link #version}: the cached
+     * snapshot when it is of that version, otherwise a freshly built one. The stalls come from the
+     * stall index's grid for the same version, rebuilt there when this instance holds an older one
+     * (e.g. after a stall was added on another instance). A snapshot is only cached when its grid was
+     * built from exactly the market's version; a market without a version is built on every call and
+     * never cached. Empty when the market has been deleted meanwhile.
+     */
+    public Mono<Snapshot> snapshot(String marketId, Version current) {
+        Snapshot cached = snapshots.get(marketId);
+        if (cached != null && current.value() != null && current.value().equals(cached.version().value())) {
+            cacheStatistics.hit();
+            return Mono.just(cached);
+        }
+        cacheStatistics.miss();
+        // Market first, then the grid of the market's version: writers stamp the version after the
+        // stalls are written, so a grid of that version (or a newer one) holds those stalls
+        return reactiveMarketRepository.findById(marketId)
+                .flatMap(market -> marketStallIndex.gridAsync(marketId, market.getLayoutVersion())
+                        .map(grid -> {
+                            Snapshot snapshot = encode(market, grid.grid());
+                            Long version = snapshot.version().value();
+                            if (version != null && version.equals(grid.version())) snapshots.put(marketId, snapshot);
+                            return snapshot;
+                        }))
+                .switchIfEmpty(Mono.fromRunnable(() -> snapshots.remove(marketId)));
+    }
+
+    public void evict(String marketId) {
+        snapshots.remove(marketId);
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
+    private Snapshot encode(Market market, StallGrid grid) {
+        Map<String, Object> map2D = market.getMap2D() != null ? new LinkedHashMap<>(market.getMap2D()) : new LinkedHashMap<>();
+        map2D.put("stalls", grid.all().stream().map(StallResponse::from).collect(Collectors.toList()));
+        MarketMapResponse response = new MarketMapResponse(market.getId(), market.getName(), map2D, market.getMap3D());
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(response);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new Snapshot(new Version(market.getLayoutVersion(), market.getLayoutUpdatedAt()), json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Market map " + market.getId() + " cannot be serialized", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.pazar.backend.service;
+
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.repository.MarketProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Per (marketId, productId) listings kept ordered by price.
+ *
+ * A book is loaded from Mongo on first read and afterwards maintained by the write paths, which
+ * must call in only after their own write has been persisted. Loading and mutation of one book both
+ * run inside the map's per-key compute, so a write racing with the initial load is either already
+ * visible to the load query or applied right after it - never lost. Cached listings are treated as
+ * immutable: a price change replaces the listing instead of mutating it.
+ *
+ * Writes made by other backend instances are not reported here, so a book is reloaded on the first
+ * read after {@code ttl}; that bounds how stale it can be. Only books with listings are kept (a
+ * product that is not sold in a market, or does not exist, is looked up again on the next read), and
+ * at most {@code maxBooks}: when full, expired books are dropped first, and if none are, a book is
+ * served without being cached.
+ */
+@Component
+public class MarketPriceBook {
+
+    private static final Comparator<MarketProduct> BY_PRICE = Comparator
+            .comparingDouble((MarketProduct listing) -> listing.getPrice() != null ? listing.getPrice() : Double.MAX_VALUE)
+            .thenComparing(MarketProduct::getId);
+
+    private final MarketProductRepository marketProductRepository;
+    private final Scheduler blockingScheduler;
+    private final int maxBooks;
+    private final long ttlNanos;
+    private final Map<BookKey, Book> books = new ConcurrentHashMap<>();
+    private final CacheStatistics cacheStatistics = new CacheStatistics(books::size);
+
+    public MarketPriceBook(MarketProductRepository marketProductRepository,
+                           Scheduler blockingScheduler,
+                           @Value("${pazar.price-book.max-books:50000}") int maxBooks,
+                           @Value("${pazar.price-book.ttl:PT1M}") Duration ttl) {
+        this.marketProductRepository = marketProductRepository;
+        this.blockingScheduler = blockingScheduler;
+        this.maxBooks = maxBooks;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public Optional<MarketProduct> cheapest(String marketId, String productId) {
+        NavigableSet<MarketProduct> book = book(marketId, productId);
+        return book.isEmpty() ? Optional.empty() : Optional.of(book.first());
+    }
+
+    public List<MarketProduct> listings(String marketId, String productId) {
+        return new ArrayList<>(book(marketId, productId));
+    }
+
+    /** Non-blocking form of {@link #listings}: a book that is not loaded yet is loaded on the blocking scheduler. */
+    public Mono<List<MarketProduct>> listingsAsync(String marketId, String productId) {
+        Book cached = books.get(new BookKey(marketId, productId));
+        if (cached != null && !cached.isExpired(System.nanoTime())) {
+            cacheStatistics.hit();
+            return Mono.just(new ArrayList<>(cached.listings));
+        }
+        return Mono.fromCallable(() -> listings(marketId, productId)).subscribeOn(blockingScheduler);
+    }
+
+    public void listingAdded(MarketProduct listing) {
+        books.computeIfPresent(BookKey.of(listing), (key, book) -> {
+            book.listings.removeIf(existing -> existing.getId().equals(listing.getId()));
+            book.listings.add(listing);
+            return book;
+        });
+    }
+
+    /** Batch form of {@link #listingAdded}, for imports: one compute per touched book. */
+    public void listingsAdded(Collection<MarketProduct> listings) {
+        Map<BookKey, List<MarketProduct>> byBook = new HashMap<>();
+        for (MarketProduct listing : listings) {
+            byBook.computeIfAbsent(BookKey.of(listing), key -> new ArrayList<>()).add(listing);
+        }
+        byBook.forEach((bookKey, added) -> books.computeIfPresent(bookKey, (key, book) -> {
+            Set<String> ids = new HashSet<>();
+            added.forEach(listing -> ids.add(listing.getId()));
+            book.listings.removeIf(existing -> ids.contains(existing.getId()));
+            book.listings.addAll(added);
+            return book;
+        }));
+    }
+
+    public void listingsRemoved(Collection<MarketProduct> listings) {
+        for (MarketProduct listing : listings) {
+            books.computeIfPresent(BookKey.of(listing), (key, book) -> {
+                book.listings.removeIf(existing -> existing.getId().equals(listing.getId()));
+                return book.listings.isEmpty() ? null : book;
+            });
+        }
+    }
+
+    public void evictProduct(String productId) {
+        books.keySet().removeIf(key -> key.productId().equals(productId));
+    }
+
+    public void evictMarket(String marketId) {
+        books.keySet().removeIf(key -> key.marketId().equals(marketId));
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
+    private NavigableSet<MarketProduct> book(String marketId, String productId) {
+        BookKey bookKey = new BookKey(marketId, productId);
+        Book cached = books.get(bookKey);
+        if (cached != null && !cached.isExpired(System.nanoTime())) {
+            cacheStatistics.hit();
+            return cached.listings;
+        }
+        if (cached == null && books.size() >= maxBooks) {
+            long now = System.nanoTime();
+            books.values().removeIf(book -> book.isExpired(now));
+            if (books.size() >= maxBooks) return load(bookKey).listings;
+        }
+        Book book = books.compute(bookKey, (key, current) -> {
+            if (current != null && !current.isExpired(System.nanoTime())) return current;
+            Book loaded = load(key);
+            return loaded.listings.isEmpty() ? null : loaded;
+        });
+        return book != null ? book.listings : Collections.emptyNavigableSet();
+    }
+
+    private Book load(BookKey key) {
+        cacheStatistics.miss();
+        Book book = new Book(System.nanoTime() + ttlNanos);
+        book.listings.addAll(marketProductRepository.findByProductIdAndMarketId(key.productId(), key.marketId()));
+        return book;
+    }
+
+    private static final class Book {
+        final NavigableSet<MarketProduct> listings = new ConcurrentSkipListSet<>(BY_PRICE);
+        final long expiresAt; // System.nanoTime()
+
+        Book(long expiresAt) {
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAt >= 0;
+        }
+    }
+
+    private record BookKey(String marketId, String productId) {
+        static BookKey of(MarketProduct listing) {
+            return new BookKey(listing.getMarketId(), listing.getProductId());
+        }
+    }
+}
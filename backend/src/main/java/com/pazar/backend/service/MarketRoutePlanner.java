@@ -0,0 +1,274 @@
+package com.pazar.backend.service;
+
+import java.util.*;
+
+/**
+ * Walking routes over a market floor plan.
+ *
+ * The map is rasterised into square cells; cells covered by a stall are blocked. Moves go to the
+ * 8 neighbours (diagonals only when both adjacent sides are free, so routes never cut stall corners).
+ * A distance field from all entrances is computed once when the planner is built, so routes from the
+ * entrance are read off its parent pointers without any search; routes from an arbitrary position use A*.
+ */
+public final class MarketRoutePlanner {
+
+    private static final double SQRT2 = Math.sqrt(2);
+    private static final int[] DX = {1, -1, 0, 0, 1, 1, -1, -1};
+    private static final int[] DY = {0, 0, 1, -1, 1, -1, 1, -1};
+
+    public record Point(double x, double y) {}
+
+    public record Route(List<Point> waypoints, double distance) {}
+
+    private final double width;
+    private final double height;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final boolean[] blocked;
+    private final double[] entranceDistance;
+    private final int[] entranceParent;
+    private final List<Point> entrances;
+
+    public MarketRoutePlanner(double width, double height, Collection<StallGrid.Stall> stalls,
+                              List<Point> entrances, double cellSize, double stallRadius) {
+        this.width = width;
+        this.height = height;
+        this.cellSize = cellSize;
+        this.cols = Math.max(1, (int) Math.ceil(width / cellSize));
+        this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+        this.blocked = new boolean[cols * rows];
+        for (StallGrid.Stall stall : stalls) block(stall, stallRadius);
+
+        this.entrances = entrances.isEmpty() ? List.of(new Point(width / 2, height)) : List.copyOf(entrances);
+        this.entranceDistance = new double[cols * rows];
+        this.entranceParent = new int[cols * rows];
+        computeEntranceField();
+    }
+
+    public List<Point> entrances() {
+        return entrances;
+    }
+
+    /** Route from the nearest entrance, read from the precomputed distance field. */
+    public Optional<Route> fromEntrance(StallGrid.Stall target) {
+        int best = -1;
+        for (int cell : goalCells(target)) {
+            if (Double.isFinite(entranceDistance[cell]) && (best < 0 || entranceDistance[cell] < entranceDistance[best])) {
+                best = cell;
+            }
+        }
+        if (best < 0) return Optional.empty();
+
+        List<Integer> cells = new ArrayList<>();
+        for (int cell = best; cell >= 0; cell = entranceParent[cell]) cells.add(cell);
+        Collections.reverse(cells);
+        Point start = nearestEntrance(cells.get(0));
+        return Optional.of(toRoute(start, cells));
+    }
+
+    /** Route from an arbitrary position, found with A*. */
+    public Optional<Route> between(Point from, StallGrid.Stall target) {
+        int start = nearestWalkable(col(from.x()), row(from.y()));
+        List<Integer> goals = goalCells(target);
+        if (start < 0 || goals.isEmpty()) return Optional.empty();
+
+        Set<Integer> goalSet = new HashSet<>(goals);
+        int targetCol = col(target.x()), targetRow = row(target.y());
+        int goalRing = Math.max(Math.abs(col(goals.get(0)) - targetCol), Math.abs(row(goals.get(0)) - targetRow));
+
+        double[] g = new double[cols * rows];
+        int[] parent = new int[cols * rows];
+        Arrays.fill(g, Double.POSITIVE_INFINITY);
+        Arrays.fill(parent, -1);
+        PriorityQueue<double[]> open = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+        g[start] = 0;
+        open.add(new double[]{heuristic(start, targetCol, targetRow, goalRing), start});
+
+        while (!open.isEmpty()) {
+            double[] entry = open.poll();
+            int cell = (int) entry[1];
+            if (goalSet.contains(cell)) {
+                List<Integer> cells = new ArrayList<>();
+                for (int c = cell; c >= 0; c = parent[c]) cells.add(c);
+                Collections.reverse(cells);
+                return Optional.of(toRoute(from, cells));
+            }
+            if (entry[0] > g[cell] + heuristic(cell, targetCol, targetRow, goalRing) + 1e-9) continue; // stale
+            for (int dir = 0; dir < 8; dir++) {
+                int next = step(cell, dir);
+                if (next < 0) continue;
+                double cost = g[cell] + (dir < 4 ? 1 : SQRT2);
+                if (cost < g[next]) {
+                    g[next] = cost;
+                    parent[next] = cell;
+                    open.add(new double[]{cost + heuristic(next, targetCol, targetRow, goalRing), next});
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void computeEntranceField() {
+        Arrays.fill(entranceDistance, Double.POSITIVE_INFINITY);
+        Arrays.fill(entranceParent, -1);
+        PriorityQueue<double[]> open = new PriorityQueue<>(Comparator.comparingDouble(e -> e[0]));
+        for (Point entrance : entrances) {
+            int cell = nearestWalkable(col(entrance.x()), row(entrance.y()));
+            if (cell >= 0 && entranceDistance[cell] > 0) {
+                entranceDistance[cell] = 0;
+                open.add(new double[]{0, cell});
+            }
+        }
+        while (!open.isEmpty()) {
+            double[] entry = open.poll();
+            int cell = (int) entry[1];
+            if (entry[0] > entranceDistance[cell]) continue;
+            for (int dir = 0; dir < 8; dir++) {
+                int next = step(cell, dir);
+                if (next < 0) continue;
+                double cost = entranceDistance[cell] + (dir < 4 ? 1 : SQRT2);
+                if (cost < entranceDistance[next]) {
+                    entranceDistance[next] = cost;
+                    entranceParent[next] = cell;
+                    open.add(new double[]{cost, next});
+                }
+            }
+        }
+    }
+
+    /** Walkable cells closest to the stall: the first ring around its cell that has any. */
+    private List<Integer> goalCells(StallGrid.Stall target) {
+        int c0 = col(target.x()), r0 = row(target.y());
+        for (int ring = 0; ring <= Math.max(cols, rows); ring++) {
+            List<Integer> cells = new ArrayList<>();
+            for (int r = r0 - ring; r <= r0 + ring; r++) {
+                for (int c = c0 - ring; c <= c0 + ring; c++) {
+                    boolean onRing = Math.max(Math.abs(r - r0), Math.abs(c - c0)) == ring;
+                    if (onRing && inside(c, r) && !blocked[index(c, r)]) cells.add(index(c, r));
+                }
+            }
+            if (!cells.isEmpty()) return cells;
+        }
+        return List.of();
+    }
+
+    private int nearestWalkable(int c0, int r0) {
+        for (int ring = 0; ring <= Math.max(cols, rows); ring++) {
+            for (int r = r0 - ring; r <= r0 + ring; r++) {
+                for (int c = c0 - ring; c <= c0 + ring; c++) {
+                    if (inside(c, r) && !blocked[index(c, r)]) return index(c, r);
+                }
+            }
+        }
+        return -1;
+    }
+
+    private Point nearestEntrance(int cell) {
+        Point best = entrances.get(0);
+        double bestDistance = Double.MAX_VALUE;
+        Point center = center(cell);
+        for (Point entrance : entrances) {
+            double d = Math.hypot(entrance.x() - center.x(), entrance.y() - center.y());
+            if (d < bestDistance) {
+                bestDistance = d;
+                best = entrance;
+            }
+        }
+        return best;
+    }
+
+    private Route toRoute(Point start, List<Integer> cells) {
+        List<Point> points = new ArrayList<>(cells.size() + 1);
+        points.add(start);
+        for (int i = 1; i < cells.size(); i++) points.add(center(cells.get(i)));
+        if (cells.size() == 1) points.add(center(cells.get(0)));
+
+        // String pulling: skip ahead while the straight segment stays clear of stalls,
+        // which removes the staircase pattern of grid moves
+        List<Point> waypoints = new ArrayList<>();
+        waypoints.add(points.get(0));
+        int anchor = 0;
+        while (anchor < points.size() - 1) {
+            int next = anchor + 1;
+            while (next + 1 < points.size() && clear(points.get(anchor), points.get(next + 1))) next++;
+            waypoints.add(points.get(next));
+            anchor = next;
+        }
+
+        double distance = 0;
+        for (int i = 1; i < waypoints.size(); i++) {
+            distance += Math.hypot(waypoints.get(i).x() - waypoints.get(i - 1).x(),
+                                   waypoints.get(i).y() - waypoints.get(i - 1).y());
+        }
+        return new Route(waypoints, distance);
+    }
+
+    /** Whether the straight segment between two points crosses only walkable cells. */
+    private boolean clear(Point a, Point b) {
+        double length = Math.hypot(b.x() - a.x(), b.y() - a.y());
+        int samples = Math.max(1, (int) Math.ceil(length / (cellSize / 4)));
+        int startCell = index(col(a.x()), row(a.y()));
+        for (int i = 1; i <= samples; i++) {
+            double t = (double) i / samples;
+            int cell = index(col(a.x() + (b.x() - a.x()) * t), row(a.y() + (b.y() - a.y()) * t));
+            if (cell != startCell && blocked[cell]) return false;
+        }
+        return true;
+    }
+
+    private double heuristic(int cell, int targetCol, int targetRow, int goalRing) {
+        int dx = Math.abs(col(cell) - targetCol), dy = Math.abs(row(cell) - targetRow);
+        double octile = Math.max(dx, dy) + (SQRT2 - 1) * Math.min(dx, dy);
+        return Math.max(0, octile - goalRing * SQRT2);
+    }
+
+    /** Neighbour in the given direction, or -1 when it is off the map, blocked or a corner cut. */
+    private int step(int cell, int dir) {
+        int c = col(cell), r = row(cell);
+        int nc = c + DX[dir], nr = r + DY[dir];
+        if (!inside(nc, nr) || blocked[index(nc, nr)]) return -1;
+        if (dir >= 4 && (blocked[index(nc, r)] || blocked[index(c, nr)])) return -1;
+        return index(nc, nr);
+    }
+
+    private void block(StallGrid.Stall stall, double radius) {
+        int c0 = col(stall.x() - radius), c1 = col(stall.x() + radius);
+        int r0 = row(stall.y() - radius), r1 = row(stall.y() + radius);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                Point center = center(index(c, r));
+                if (Math.hypot(center.x() - stall.x(), center.y() - stall.y()) <= radius) blocked[index(c, r)] = true;
+            }
+        }
+        blocked[index(col(stall.x()), row(stall.y()))] = true;
+    }
+
+    private Point center(int cell) {
+        return new Point(Math.min((col(cell) + 0.5) * cellSize, width), Math.min((row(cell) + 0.5) * cellSize, height));
+    }
+
+    private int col(double x) {
+        return Math.max(0, Math.min((int) Math.floor(x / cellSize), cols - 1));
+    }
+
+    private int row(double y) {
+        return Math.max(0, Math.min((int) Math.floor(y / cellSize), rows - 1));
+    }
+
+    private int col(int cell) {
+        return cell % cols;
+    }
+
+    private int row(int cell) {
+        return cell / cols;
+    }
+
+    private boolean inside(int c, int r) {
+        return c >= 0 && c < cols && r >= 0 && r < rows;
+    }
+
+    private int index(int c, int r) {
+        return r * cols + c;
+    }
+}
@@ -1,93 +1,158 @@
 package com.pazar.backend.service;
 
+import com.pazar.backend.dto.CursorPage;
+import com.pazar.backend.dto.MarketRequest;
+import com.pazar.backend.dto.MarketResponse;
+import com.pazar.backend.dto.NearbyStall;
+import com.pazar.backend.dto.RouteResponse;
+import com.pazar.backend.dto.StallRequest;
+import com.pazar.backend.dto.StallResponse;
 import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.repository.MarketProductRepository;
 import com.pazar.backend.repository.MarketRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.repository.ReactiveMarketRepository;
+import com.pazar.backend.repository.StallRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class MarketService {
 
-    private final MarketRepository marketRepository;
-    private final ObjectMapper objectMapper;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int MAX_NEAREST_STALLS = 100;
 
-    public MarketService(MarketRepository marketRepository, ObjectMapper objectMapper) {
+    private final MarketRepository marketRepository;
+    private final ReactiveMarketRepository reactiveMarketRepository;
+    private final StallRepository stallRepository;
+    private final MarketProductRepository marketProductRepository;
+    private final MarketPriceBook marketPriceBook;
+    private final MarketStatistics marketStatistics;
+    private final MarketEventHub marketEventHub;
+    private final MarketStallIndex marketStallIndex;
+    private final MarketMapCache marketMapCache;
+    private final IdGenerator idGenerator;
+    private final double metersPerUnit;
+    private final double walkingSpeed;
+
+    public MarketService(MarketRepository marketRepository,
+                         ReactiveMarketRepository reactiveMarketRepository,
+                         StallRepository stallRepository,
+                         MarketProductRepository marketProductRepository,
+                         MarketPriceBook marketPriceBook,
+                         MarketStatistics marketStatistics,
+                         MarketEventHub marketEventHub,
+                         MarketStallIndex marketStallIndex,
+                         MarketMapCache marketMapCache,
+                         IdGenerator idGenerator,
+                         @Value("${pazar.route.meters-per-unit:0.1}") double metersPerUnit,
+                         @Value("${pazar.route.walking-speed:1.0}") double walkingSpeed) {
         this.marketRepository = marketRepository;
-        this.objectMapper = objectMapper;
+        this.reactiveMarketRepository = reactiveMarketRepository;
+        this.stallRepository = stallRepository;
+        this.marketProductRepository = marketProductRepository;
+        this.marketPriceBook = marketPriceBook;
+        this.marketStatistics = marketStatistics;
+        this.marketEventHub = marketEventHub;
+        this.marketStallIndex = marketStallIndex;
+        this.marketMapCache = marketMapCache;
+        this.idGenerator = idGenerator;
+        this.metersPerUnit = metersPerUnit;
+        this.walkingSpeed = walkingSpeed;
     }
 
-    public List<Map<String, Object>> getAllMarkets() {
-        return marketRepository.findAll().stream()
-                .map(this::convertToMap)
-                .collect(Collectors.toList());
+    public Flux<MarketResponse> getAllMarkets() {
+        return reactiveMarketRepository.findAll().map(MarketResponse::from);
     }
 
-    public Map<String, Object> getMarketById(String marketId) {
-        return marketRepository.findById(marketId)
-                .map(this::convertToMap)
-                .orElse(null);
+    public CursorPage<MarketResponse> getMarketsPage(String after, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        List<Market> rows = after == null
+                ? marketRepository.findAllByOrderByIdAsc(Limit.of(pageSize + 1))
+                : marketRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Market::getId, MarketResponse::from);
+    }
+
+    /** Cursor-backed stream of all markets; the caller must close it. */
+    public Stream<MarketResponse> streamAllMarkets() {
+        return marketRepository.streamAllByOrderByIdAsc().map(MarketResponse::from);
     }
 
-    public Map<String, Object> getMarketMap(String marketId) {
+    public boolean marketExists(String marketId) {
+        return marketRepository.existsById(marketId);
+    }
+
+    public MarketResponse getMarketById(String marketId) {
         return marketRepository.findById(marketId)
-                .map(market -> {
-                    Map<String, Object> response = new HashMap<>();
-                    response.put("marketId", market.getId());
-                    response.put("marketName", market.getName());
-                    response.put("map2D", market.getMap2D());
-                    response.put("map3D", market.getMap3D());
-                    return response;
-                })
+                .map(MarketResponse::from)
                 .orElse(null);
     }
 
-    public Map<String, Object> getRoute(String marketId, String stallNumber) {
-        Optional<Market> marketOpt = marketRepository.findById(marketId);
-        if (marketOpt.isEmpty()) return null;
+    public List<NearbyStall> findNearestStalls(String marketId, double x, double y, double z, int k, String type) {
+        StallGrid grid = marketStallIndex.grid(marketId);
+        if (grid == null) return null;
+        return grid.nearest(x, y, z, Math.min(k, MAX_NEAREST_STALLS), type).stream()
+                .map(NearbyStall::from)
+                .collect(Collectors.toList());
+    }
 
-        Market market = marketOpt.get();
-        Map<String, Object> map2D = market.getMap2D();
-        if (map2D == null) return null;
-        
-        List<Map<String, Object>> stalls = (List<Map<String, Object>>) map2D.get("stalls");
-        if (stalls == null) return null;
+    public List<NearbyStall> findStallsWithinRadius(String marketId, double x, double y, double z, double radius, String type) {
+        StallGrid grid = marketStallIndex.grid(marketId);
+        if (grid == null) return null;
+        return grid.withinRadius(x, y, z, radius, type).stream()
+                .map(NearbyStall::from)
+                .collect(Collectors.toList());
+    }
 
-        Optional<Map<String, Object>> stallOpt = stalls.stream()
-            .filter(s -> s.get("id").equals(stallNumber))
-            .findFirst();
+    /**
+     * Walking route to a stall, from the nearest entrance or - when {@code from} is given - from that
+     * position. Returns {@code null} when the market or stall does not exist.
+     */
+    public RouteResponse getRoute(String marketId, String stallNumber, MarketRoutePlanner.Point from) {
+        StallGrid grid = marketStallIndex.grid(marketId);
+        if (grid == null) return null;
 
+        Optional<StallGrid.Stall> stallOpt = grid.get(stallNumber);
         if (stallOpt.isEmpty()) return null;
 
-        Map<String, Object> stall = stallOpt.get();
-        Map<String, Object> response = new HashMap<>();
-        response.put("stallNumber", stallNumber);
-        response.put("location", Map.of(
-            "x", stall.get("x"),
-            "y", stall.get("y"),
-            "z", stall.getOrDefault("z", 0)
-        ));
-        response.put("directions", "Pazar girişinden " + stallNumber + " numaralı tezgaha yürüyün. Konum: X=" + 
-                     stall.get("x") + ", Y=" + stall.get("y"));
-        response.put("estimatedTime", "2-3 dakika");
+        StallGrid.Stall stall = stallOpt.get();
+        MarketRoutePlanner planner = marketStallIndex.planner(marketId);
+        Optional<MarketRoutePlanner.Route> route = from == null ? planner.fromEntrance(stall) : planner.between(from, stall);
+        String origin = from == null ? "entrance" : "position";
+        RouteResponse.StallLocation location = new RouteResponse.StallLocation(stall.x(), stall.y(), stall.z());
 
-        return response;
+        if (route.isEmpty()) {
+            return new RouteResponse(stallNumber, location, origin, false, List.of(), null, null, null, null,
+                    stallNumber + " numaralı tezgaha yürüme yolu bulunamadı");
+        }
+
+        double meters = route.get().distance() * metersPerUnit;
+        long seconds = Math.round(meters / walkingSpeed);
+        String estimatedTime = Math.max(1, Math.round(seconds / 60.0)) + " dakika";
+        String directions = (from == null ? "Pazar girişinden " : "Bulunduğunuz konumdan ") + stallNumber
+                + " numaralı tezgaha yaklaşık " + Math.round(meters) + " metre yürüyün";
+        return new RouteResponse(stallNumber, location, origin, true, route.get().waypoints(),
+                route.get().distance(), meters, seconds, estimatedTime, directions);
     }
 
     // Admin CRUD operations
-    public Map<String, Object> createMarket(Map<String, Object> marketData) {
-        Market market = convertToEntity(marketData);
+    public MarketResponse createMarket(MarketRequest marketData) {
+        Market market = marketData.toEntity();
+        boolean isNew = market.getId() == null || !marketRepository.existsById(market.getId());
         if (market.getId() == null) {
-            market.setId("market_" + System.currentTimeMillis());
+            market.setId(idGenerator.nextId("market_"));
         }
         
         // Default map structure if not provided
         if (market.getMap2D() == null) {
             market.setMap2D(Map.of(
                 "width", 400,
-                "height", 300,
-                "stalls", new ArrayList<>()
+                "height", 300
             ));
         }
         if (market.getMap3D() == null) {
@@ -97,86 +162,88 @@ public class MarketService {
                 "currentFloor", 0
             ));
         }
+        List<?> stalls = detachStalls(market);
         
         Market savedMarket = marketRepository.save(market);
-        return convertToMap(savedMarket);
+        if (isNew) marketStatistics.marketCreated(savedMarket);
+        if (stalls != null) replaceStalls(savedMarket.getId(), stalls);
+        marketStallIndex.layoutChanged(savedMarket.getId());
+        if (!isNew) marketEventHub.mapChanged(savedMarket.getId());
+        return MarketResponse.from(savedMarket);
     }
 
-    public Map<String, Object> updateMarket(String marketId, Map<String, Object> marketData) {
+    public MarketResponse updateMarket(String marketId, MarketRequest marketData) {
         if (!marketRepository.existsById(marketId)) return null;
         
-        Market market = convertToEntity(marketData);
+        Market market = marketData.toEntity();
         market.setId(marketId);
+        List<?> stalls = detachStalls(market);
         
         Market updatedMarket = marketRepository.save(market);
-        return convertToMap(updatedMarket);
+        if (stalls != null) replaceStalls(marketId, stalls);
+        marketStallIndex.layoutChanged(marketId);
+        marketEventHub.mapChanged(marketId);
+        return MarketResponse.from(updatedMarket);
     }
 
     public boolean deleteMarket(String marketId) {
         if (marketRepository.existsById(marketId)) {
             marketRepository.deleteById(marketId);
+            stallRepository.deleteByMarketId(marketId);
+            marketProductRepository.deleteByMarketId(marketId);
+            marketStallIndex.invalidate(marketId);
+            marketPriceBook.evictMarket(marketId);
+            marketMapCache.evict(marketId);
+            marketStatistics.marketDeleted(marketId);
+            marketEventHub.marketDeleted(marketId);
             return true;
         }
         return false;
     }
 
-    public Map<String, Object> addStallToMarket(String marketId, Map<String, Object> stallData) {
-        Optional<Market> marketOpt = marketRepository.findById(marketId);
-        if (marketOpt.isEmpty()) return null;
-        
-        Market market = marketOpt.get();
-        Map<String, Object> map2D = market.getMap2D();
-        
-        // Ensure stalls list exists and is mutable
-        List<Map<String, Object>> stalls;
-        if (map2D.get("stalls") instanceof List) {
-            stalls = new ArrayList<>((List<Map<String, Object>>) map2D.get("stalls"));
-        } else {
-            stalls = new ArrayList<>();
-        }
-        
-        stalls.add(new HashMap<>(stallData));
-        
-        // Update map2D
-        Map<String, Object> updatedMap2D = new HashMap<>(map2D);
-        updatedMap2D.put("stalls", stalls);
-        market.setMap2D(updatedMap2D);
-        
-        marketRepository.save(market);
-        return stallData;
+    /** Adds the stall, or replaces the one with the same id; {@code null} when the market does not exist. */
+    public StallResponse addStallToMarket(String marketId, StallRequest stallData) {
+        if (stallData.id() == null || !marketRepository.existsById(marketId)) return null;
+
+        Stall stall = stallData.toEntity(marketId);
+        boolean isNew = !stallRepository.existsById(stall.getId());
+        stallRepository.save(stall);
+        marketStallIndex.layoutChanged(marketId);
+        if (isNew) marketStatistics.stallAdded(marketId, stall.getStallId());
+        marketEventHub.stallAdded(stall);
+        return StallResponse.from(stall);
     }
 
     public boolean removeStallFromMarket(String marketId, String stallId) {
-        Optional<Market> marketOpt = marketRepository.findById(marketId);
-        if (marketOpt.isEmpty()) return false;
-        
-        Market market = marketOpt.get();
-        Map<String, Object> map2D = market.getMap2D();
-        
-        List<Map<String, Object>> stalls;
-        if (map2D.get("stalls") instanceof List) {
-            stalls = new ArrayList<>((List<Map<String, Object>>) map2D.get("stalls"));
-        } else {
-            return false;
-        }
-        
-        boolean removed = stalls.removeIf(s -> s.get("id").equals(stallId));
+        boolean removed = stallRepository.deleteByMarketIdAndStallId(marketId, stallId) > 0;
         if (removed) {
-            Map<String, Object> updatedMap2D = new HashMap<>(map2D);
-            updatedMap2D.put("stalls", stalls);
-            market.setMap2D(updatedMap2D);
-            marketRepository.save(market);
+            marketStallIndex.layoutChanged(marketId);
+            marketStatistics.stallRemoved(marketId, stallId);
+            marketEventHub.stallRemoved(marketId, stallId);
         }
-        
         return removed;
     }
 
-    private Map<String, Object> convertToMap(Market market) {
-        return objectMapper.convertValue(market, Map.class);
+    /**
+     * Stalls sent inside {@code map2D} (the pre-collection request shape) are taken out of the market
+     * document; returns them, or {@code null} when the request did not carry a stalls list.
+     */
+    private static List<?> detachStalls(Market market) {
+        if (market.getMap2D() == null || !market.getMap2D().containsKey("stalls")) return null;
+        Map<String, Object> map2D = new HashMap<>(market.getMap2D());
+        Object stalls = map2D.remove("stalls");
+        market.setMap2D(map2D);
+        return stalls instanceof List<?> list ? list : List.of();
     }
 
-    private Market convertToEntity(Map<String, Object> map) {
-        return objectMapper.convertValue(map, Market.class);
+    private void replaceStalls(String marketId, List<?> raw) {
+        List<Stall> stalls = new ArrayList<>();
+        for (Object item : raw) {
+            Stall stall = item instanceof Map<?, ?> map ? Stall.fromMap(marketId, map) : null;
+            if (stall != null) stalls.add(stall);
+        }
+        stallRepository.deleteByMarketId(marketId);
+        stallRepository.saveAll(stalls);
+        marketStatistics.stallsReplaced(marketId, stalls.size());
     }
 }
-
@@ -0,0 +1,210 @@
+package com.pazar.backend.service;
+
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.repository.MarketRepository;
+import com.pazar.backend.repository.StallRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-market {@link StallGrid} and {@link MarketRoutePlanner}, built from the market's stall documents
+ * and {@code map2D} dimensions on first use, and dropped whenever the stall layout changes. Building and invalidation of one market share the map's
+ * per-key lock, so an invalidation that follows a persisted write always wins over a concurrent build.
+ * The route planner (with its entrance distance field) is only built when a route is first requested.
+ *
+ * Each layout remembers the market's layout version it was built from. Invalidation only reaches the
+ * instance that made the write, so callers that have just read the current version (the map cache)
+ * pass it in, and a layout of another version is rebuilt; that is how changes made on other instances
+ * show up.
+ */
+@Component
+public class MarketStallIndex {
+
+    private static final double DEFAULT_WIDTH = 400;
+    private static final double DEFAULT_HEIGHT = 300;
+    private static final Layout EMPTY = new Layout(new StallGrid(List.of()), null, null);
+
+    /** A grid and the layout version of the market document it was built from ({@code null} for none). */
+    public record VersionedGrid(StallGrid grid, Long version) {}
+
+    private final MarketRepository marketRepository;
+    private final StallRepository stallRepository;
+    private final IdGenerator idGenerator;
+    private final Scheduler blockingScheduler;
+    private final Map<String, Layout> layouts = new ConcurrentHashMap<>();
+    private final CacheStatistics cacheStatistics = new CacheStatistics(layouts::size);
+    private final double cellSize;
+    private final double stallRadius;
+
+    public MarketStallIndex(MarketRepository marketRepository,
+                            StallRepository stallRepository,
+                            IdGenerator idGenerator,
+                            Scheduler blockingScheduler,
+                            @Value("${pazar.route.cell-size:10}") double cellSize,
+                            @Value("${pazar.route.stall-radius:12}") double stallRadius) {
+        this.marketRepository = marketRepository;
+        this.stallRepository = stallRepository;
+        this.idGenerator = idGenerator;
+        this.blockingScheduler = blockingScheduler;
+        this.cellSize = cellSize;
+        this.stallRadius = stallRadius;
+    }
+
+    /** The market's grid, or {@code null} when the market does not exist. */
+    public StallGrid grid(String marketId) {
+        Layout layout = layout(marketId);
+        return layout != null ? layout.grid : null;
+    }
+
+    /** The market's route planner, or {@code null} when the market does not exist. */
+    public MarketRoutePlanner planner(String marketId) {
+        Layout layout = layout(marketId);
+        return layout != null ? layout.planner() : null;
+    }
+
+    /**
+     * Non-blocking form of {@link #grid} for the layout {@code version} just read from the market: a
+     * cached grid of that version is returned right away, otherwise the grid is rebuilt (with blocking
+     * repository calls, once per layout change) on the blocking scheduler. The result carries the
+     * version it was actually built from, which is newer when the layout changed again meanwhile.
+     * Empty when the market does not exist.
+     */
+    public Mono<VersionedGrid> gridAsync(String marketId, Long version) {
+        Layout cached = layouts.get(marketId);
+        if (cached != null && cached != EMPTY && cached.matches(version)) {
+            cacheStatistics.hit();
+            return Mono.just(new VersionedGrid(cached.grid, cached.version));
+        }
+        return Mono.fromCallable(() -> {
+            Layout layout = layout(marketId, version);
+            return layout != null ? new VersionedGrid(layout.grid, layout.version) : null;
+        }).subscribeOn(blockingScheduler);
+    }
+
+    public void invalidate(String marketId) {
+        layouts.remove(marketId);
+    }
+
+    /**
+     * To be called after a persisted change of the market's map or stalls: drops the cached layout, then
+     * stamps a new layout version on the market. A reader that sees the new version therefore always
+     * builds from the changed layout.
+     */
+    public void layoutChanged(String marketId) {
+        invalidate(marketId);
+        marketRepository.updateLayoutVersionById(marketId, idGenerator.nextLong(), Instant.now());
+    }
+
+    public CacheStatistics getCacheStatistics() {
+        return cacheStatistics;
+    }
+
+    private Layout layout(String marketId) {
+        return layout(marketId, null);
+    }
+
+    /** The cached layout, rebuilt when missing or, with a {@code version}, when built from another one. */
+    private Layout layout(String marketId, Long version) {
+        Layout layout = layouts.get(marketId);
+        if (layout != null && layout != EMPTY && layout.matches(version)) {
+            cacheStatistics.hit();
+            return layout;
+        }
+        layout = layouts.compute(marketId, (id, current) -> {
+            if (current != null && current != EMPTY && current.matches(version)) return current;
+            cacheStatistics.miss();
+            return marketRepository.findById(id).map(this::build).orElse(EMPTY);
+        });
+        if (layout == EMPTY) {
+            layouts.remove(marketId, EMPTY); // do not pin unknown ids in memory
+            return null;
+        }
+        return layout;
+    }
+
+    private Layout build(Market market) {
+        List<StallGrid.Stall> stalls = new ArrayList<>();
+        List<MarketRoutePlanner.Point> entrances = new ArrayList<>();
+        Map<String, Object> map2D = market.getMap2D() != null ? market.getMap2D() : Map.of();
+        for (Stall stall : stallsOf(market)) {
+            if (stall.getX() != null && stall.getY() != null) {
+                stalls.add(new StallGrid.Stall(stall.getStallId(), stall.getX(), stall.getY(),
+                        stall.getZ() != null ? stall.getZ() : 0, stall.getType(), stall.getVendorName()));
+            }
+        }
+        if (map2D.get("entrance") instanceof Map<?, ?> entrance) addPoint(entrances, entrance);
+        if (map2D.get("entrances") instanceof List<?> raw) {
+            for (Object item : raw) {
+                if (item instanceof Map<?, ?> entrance) addPoint(entrances, entrance);
+            }
+        }
+        double width = map2D.get("width") instanceof Number w ? w.doubleValue() : DEFAULT_WIDTH;
+        double height = map2D.get("height") instanceof Number h ? h.doubleValue() : DEFAULT_HEIGHT;
+
+        // The market is read before its stalls and writers stamp the version after writing stalls,
+        // so the stalls are at least as new as the version recorded here
+        StallGrid grid = new StallGrid(stalls);
+        return new Layout(grid, market.getLayoutVersion(),
+                () -> new MarketRoutePlanner(width, height, stalls, entrances, cellSize, stallRadius));
+    }
+
+    private static void addPoint(List<MarketRoutePlanner.Point> points, Map<?, ?> raw) {
+        if (raw.get("x") instanceof Number x && raw.get("y") instanceof Number y) {
+            points.add(new MarketRoutePlanner.Point(x.doubleValue(), y.doubleValue()));
+        }
+    }
+
+    /**
+     * Stored stalls of the market plus any still embedded in {@code map2D.stalls} that the startup
+     * migration has not moved yet; a stored stall wins over an embedded one with the same id.
+     */
+    private List<Stall> stallsOf(Market market) {
+        List<Stall> stalls = stallRepository.findByMarketIdOrderByStallIdAsc(market.getId());
+        if (market.getMap2D() != null && market.getMap2D().get("stalls") instanceof List<?> legacy && !legacy.isEmpty()) {
+            Set<String> stored = new HashSet<>();
+            stalls.forEach(stall -> stored.add(stall.getStallId()));
+            for (Object item : legacy) {
+                Stall stall = item instanceof Map<?, ?> raw ? Stall.fromMap(market.getId(), raw) : null;
+                if (stall != null && stored.add(stall.getStallId())) stalls.add(stall);
+            }
+        }
+        return stalls;
+    }
+
+    private static final class Layout {
+        final StallGrid grid;
+        final Long version;
+        private final Supplier<MarketRoutePlanner> plannerFactory;
+        private volatile MarketRoutePlanner planner;
+
+        Layout(StallGrid grid, Long version, Supplier<MarketRoutePlanner> plannerFactory) {
+            this.grid = grid;
+            this.version = version;
+            this.plannerFactory = plannerFactory;
+        }
+
+        /** Built from {@code expected}; any layout matches when no version is asked for. */
+        boolean matches(Long expected) {
+            return expected == null || expected.equals(version);
+        }
+
+        MarketRoutePlanner planner() {
+            MarketRoutePlanner current = planner;
+            if (current == null) {
+                synchronized (this) {
+                    if (planner == null) planner = plannerFactory.get();
+                    current = planner;
+                }
+            }
+            return current;
+        }
+    }
+}
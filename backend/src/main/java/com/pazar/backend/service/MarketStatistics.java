@@ -0,0 +1,351 @@
+package com.pazar.backend.service;
+
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.repository.MarketProductRepository;
+import com.pazar.backend.repository.MarketRepository;
+import com.pazar.backend.repository.ProductRepository;
+import com.pazar.backend.repository.StallRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Counters and per-market aggregates behind the admin dashboard.
+ *
+ * The services report every write here, so reads are O(1) and never touch the collections.
+ * A background reconcile rebuilds the numbers from Mongo on startup and then periodically,
+ * which also picks up writes made by other backend instances.
+ *
+ * Writes reported while a reconcile runs are applied to the live numbers and also journaled when
+ * the scan cannot see them: their collection's scan has finished, or has already fetched their _id
+ * (every collection is read in _id order, one page at a time, and writes are reported after they are
+ * persisted). The scan position moves to the end of a page as soon as the page is fetched, so a write
+ * to a document that was fetched but not yet counted is journaled too. The journal is replayed onto
+ * the rebuilt numbers before they replace the live ones.
+ */
+@Component
+public class MarketStatistics {
+
+    private static final Logger log = LoggerFactory.getLogger(MarketStatistics.class);
+
+    static final String UNKNOWN_CATEGORY = "Diğer";
+    private static final int SCAN_PAGE = 1000;
+
+    private final MarketRepository marketRepository;
+    private final ProductRepository productRepository;
+    private final MarketProductRepository marketProductRepository;
+    private final StallRepository stallRepository;
+    private final ProductSearchIndex productSearchIndex;
+
+    private final Instant startedAt = Instant.ofEpochMilli(ManagementFactory.getRuntimeMXBean().getStartTime());
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder serverErrors = new LongAdder();
+    private final Set<String> users = ConcurrentHashMap.newKeySet();
+
+    private volatile Totals totals = new Totals();
+    private volatile Reconcile running;
+    private final ReadWriteLock swap = new ReentrantReadWriteLock();
+
+    public MarketStatistics(MarketRepository marketRepository,
+                            ProductRepository productRepository,
+                            MarketProductRepository marketProductRepository,
+                            StallRepository stallRepository,
+                            ProductSearchIndex productSearchIndex) {
+        this.marketRepository = marketRepository;
+        this.productRepository = productRepository;
+        this.marketProductRepository = marketProductRepository;
+        this.stallRepository = stallRepository;
+        this.productSearchIndex = productSearchIndex;
+    }
+
+    /** Run by StartupTasks after startup, then periodically. */
+    @Scheduled(initialDelayString = "${pazar.stats.reconcile-interval:PT15M}",
+               fixedDelayString = "${pazar.stats.reconcile-interval:PT15M}")
+    public synchronized void reconcile() {
+        long start = System.nanoTime();
+        Totals fresh = new Totals();
+        Reconcile reconcile = new Reconcile();
+        running = reconcile;
+        try {
+            Map<String, String> categories = new HashMap<>();
+            scan(reconcile, Scan.PRODUCTS, productRepository::findAllByOrderByIdAsc,
+                    productRepository::findByIdGreaterThanOrderByIdAsc, Product::getId, product -> {
+                        categories.put(product.getId(), product.getCategory());
+                        fresh.products.incrementAndGet();
+                    });
+            scan(reconcile, Scan.MARKETS, marketRepository::findAllByOrderByIdAsc,
+                    marketRepository::findByIdGreaterThanOrderByIdAsc, Market::getId, market -> {
+                        fresh.markets.incrementAndGet();
+                        fresh.market(market.getId());
+                    });
+            scan(reconcile, Scan.STALLS, stallRepository::findAllByOrderByIdAsc,
+                    stallRepository::findByIdGreaterThanOrderByIdAsc, Stall::getId,
+                    stall -> fresh.market(stall.getMarketId()).stalls.incrementAndGet());
+            scan(reconcile, Scan.LISTINGS, marketProductRepository::findAllByOrderByIdAsc,
+                    marketProductRepository::findByIdGreaterThanOrderByIdAsc, MarketProduct::getId,
+                    listing -> fresh.addListing(listing, categories.getOrDefault(listing.getProductId(), UNKNOWN_CATEGORY)));
+
+            swap.writeLock().lock();
+            try {
+                reconcile.journal.forEach(change -> change.accept(fresh));
+                totals = fresh;
+            } finally {
+                swap.writeLock().unlock();
+            }
+        } finally {
+            running = null;
+        }
+        log.info("Market statistics reconciled: {} markets, {} products, {} listings in {} ms ({} concurrent writes replayed)",
+                fresh.markets.get(), fresh.products.get(), fresh.listings.get(),
+                (System.nanoTime() - start) / 1_000_000, reconcile.journal.size());
+    }
+
+    /** Reads one collection in _id order, a page at a time; the position moves past each page once it is fetched. */
+    private static <T> void scan(Reconcile reconcile, Scan scan,
+                                 Function<Limit, List<T>> first,
+                                 BiFunction<String, Limit, List<T>> after,
+                                 Function<T, String> idOf,
+                                 Consumer<T> count) {
+        List<T> page = first.apply(Limit.of(SCAN_PAGE));
+        while (!page.isEmpty()) {
+            String last = idOf.apply(page.get(page.size() - 1));
+            reconcile.read(scan, last);
+            page.forEach(count);
+            if (page.size() < SCAN_PAGE) break;
+            page = after.apply(last, Limit.of(SCAN_PAGE));
+        }
+        reconcile.finished(scan);
+    }
+
+    // Write notifications
+
+    public void marketCreated(Market market) {
+        record(Scan.MARKETS, market.getId(), totals -> {
+            totals.markets.incrementAndGet();
+            totals.market(market.getId());
+        });
+    }
+
+    /** The market with its stalls and listings. */
+    public void marketDeleted(String marketId) {
+        record(Scan.MARKETS, marketId, totals -> {
+            totals.markets.decrementAndGet();
+            MarketAggregate removed = totals.perMarket.remove(marketId);
+            if (removed != null) totals.listings.addAndGet(-removed.listings.get());
+        });
+    }
+
+    public void productCreated(String productId) {
+        record(Scan.PRODUCTS, productId, totals -> totals.products.incrementAndGet());
+    }
+
+    public void productDeleted(String productId) {
+        record(Scan.PRODUCTS, productId, totals -> totals.products.decrementAndGet());
+    }
+
+    public void listingAdded(MarketProduct listing) {
+        listingAdded(listing, categoryOf(listing));
+    }
+
+    public void listingAdded(MarketProduct listing, String category) {
+        record(Scan.LISTINGS, listing.getId(), totals -> totals.addListing(listing, category));
+    }
+
+    public void listingRemoved(MarketProduct listing) {
+        listingRemoved(listing, categoryOf(listing));
+    }
+
+    public void listingRemoved(MarketProduct listing, String category) {
+        record(Scan.LISTINGS, listing.getId(), totals -> totals.removeListing(listing, category));
+    }
+
+    public void stallAdded(String marketId, String stallId) {
+        record(Scan.STALLS, Stall.idOf(marketId, stallId), totals -> totals.market(marketId).stalls.incrementAndGet());
+    }
+
+    public void stallRemoved(String marketId, String stallId) {
+        record(Scan.STALLS, Stall.idOf(marketId, stallId), totals -> totals.market(marketId).stalls.decrementAndGet());
+    }
+
+    public void stallsReplaced(String marketId, int count) {
+        record(Scan.STALLS, null, totals -> totals.market(marketId).stalls.set(count));
+    }
+
+    public void requestCompleted(int status) {
+        requests.increment();
+        if (status >= 500) serverErrors.increment();
+    }
+
+    public void userLoggedIn(String email) {
+        if (email != null) users.add(email);
+    }
+
+    // Reads
+
+    public long getTotalMarkets() { return totals.markets.get(); }
+
+    public long getTotalProducts() { return totals.products.get(); }
+
+    public long getTotalListings() { return totals.listings.get(); }
+
+    public int getTotalUsers() { return users.size(); }
+
+    public long getRequestCount() { return requests.sum(); }
+
+    public long getServerErrorCount() { return serverErrors.sum(); }
+
+    public Instant getStartedAt() { return startedAt; }
+
+    public Duration getUptime() {
+        return Duration.between(startedAt, Instant.now());
+    }
+
+    public Map<String, Object> getMarketSnapshot(String marketId) {
+        MarketAggregate aggregate = totals.perMarket.get(marketId);
+        if (aggregate == null) return null;
+
+        Map<String, Object> categories = new TreeMap<>();
+        aggregate.categories.forEach((category, prices) -> categories.put(category, prices.snapshot()));
+
+        Map<String, Object> snapshot = new HashMap<>();
+        snapshot.put("marketId", marketId);
+        snapshot.put("listingCount", aggregate.listings.get());
+        snapshot.put("stallCount", aggregate.stalls.get());
+        snapshot.put("categories", categories);
+        return snapshot;
+    }
+
+    /** Applies a write to the live numbers, and journals it for a running reconcile that will not see it. */
+    private void record(Scan scan, String id, Consumer<Totals> change) {
+        swap.readLock().lock();
+        try {
+            change.accept(totals);
+            Reconcile reconcile = running;
+            if (reconcile != null && reconcile.misses(scan, id)) reconcile.journal.add(change);
+        } finally {
+            swap.readLock().unlock();
+        }
+    }
+
+    private String categoryOf(MarketProduct listing) {
+        return productSearchIndex.get(listing.getProductId())
+                .map(Product::getCategory)
+                .orElse(UNKNOWN_CATEGORY);
+    }
+
+    private enum Scan { PRODUCTS, MARKETS, STALLS, LISTINGS }
+
+    /** Progress of one reconcile: the last _id fetched per collection, and the writes it has to replay. */
+    private static final class Reconcile {
+        final Map<Scan, String> positions = new ConcurrentHashMap<>();
+        final Set<Scan> finished = ConcurrentHashMap.newKeySet();
+        final Queue<Consumer<Totals>> journal = new ConcurrentLinkedQueue<>();
+
+        void read(Scan scan, String id) {
+            positions.put(scan, id);
+        }
+
+        void finished(Scan scan) {
+            finished.add(scan);
+        }
+
+        /** Whether a persisted write to the document {@code id} (null: several documents) is behind the scan. */
+        boolean misses(Scan scan, String id) {
+            if (finished.contains(scan)) return true;
+            String position = positions.get(scan);
+            if (position == null) return false;
+            return id == null || id.compareTo(position) <= 0;
+        }
+    }
+
+    private static final class Totals {
+        final AtomicLong markets = new AtomicLong();
+        final AtomicLong products = new AtomicLong();
+        final AtomicLong listings = new AtomicLong();
+        final Map<String, MarketAggregate> perMarket = new ConcurrentHashMap<>();
+
+        MarketAggregate market(String marketId) {
+            return perMarket.computeIfAbsent(marketId, id -> new MarketAggregate());
+        }
+
+        void addListing(MarketProduct listing, String category) {
+            listings.incrementAndGet();
+            MarketAggregate aggregate = market(listing.getMarketId());
+            aggregate.listings.incrementAndGet();
+            if (listing.getPrice() != null) {
+                aggregate.category(category).add(listing.getPrice());
+            }
+        }
+
+        void removeListing(MarketProduct listing, String category) {
+            listings.decrementAndGet();
+            MarketAggregate aggregate = perMarket.get(listing.getMarketId());
+            if (aggregate == null) return;
+            aggregate.listings.decrementAndGet();
+            if (listing.getPrice() != null) {
+                CategoryPrices prices = aggregate.categories.get(category);
+                if (prices != null) prices.remove(listing.getPrice());
+            }
+        }
+    }
+
+    private static final class MarketAggregate {
+        final AtomicLong listings = new AtomicLong();
+        final AtomicLong stalls = new AtomicLong();
+        final Map<String, CategoryPrices> categories = new ConcurrentHashMap<>();
+
+        CategoryPrices category(String category) {
+            return categories.computeIfAbsent(category != null ? category : UNKNOWN_CATEGORY, c -> new CategoryPrices());
+        }
+    }
+
+    /** Price multiset of one category, so min and max stay exact when listings are removed. */
+    private static final class CategoryPrices {
+        private final TreeMap<Double, Integer> counts = new TreeMap<>();
+        private long count;
+        private double sum;
+
+        synchronized void add(double price) {
+            counts.merge(price, 1, Integer::sum);
+            count++;
+            sum += price;
+        }
+
+        synchronized void remove(double price) {
+            Integer existing = counts.get(price);
+            if (existing == null) return;
+            if (existing == 1) counts.remove(price);
+            else counts.put(price, existing - 1);
+            count--;
+            sum -= price;
+        }
+
+        synchronized Map<String, Object> snapshot() {
+            Map<String, Object> snapshot = new HashMap<>();
+            snapshot.put("listingCount", count);
+            snapshot.put("averagePrice", count == 0 ? null : sum / count);
+            snapshot.put("minPrice", counts.isEmpty() ? null : counts.firstKey());
+            snapshot.put("maxPrice", counts.isEmpty() ? null : counts.lastKey());
+            return snapshot;
+        }
+    }
+}
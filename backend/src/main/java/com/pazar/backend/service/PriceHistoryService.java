@@ -0,0 +1,320 @@
+package com.pazar.backend.service;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.model.CreateCollectionOptions;
+import com.mongodb.client.model.TimeSeriesGranularity;
+import com.mongodb.client.model.TimeSeriesOptions;
+import com.pazar.backend.dto.PriceHistoryResponse;
+import com.pazar.backend.dto.PriceHistoryResponse.Interval;
+import com.pazar.backend.dto.PriceHistoryResponse.Point;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.PriceRollup;
+import com.pazar.backend.entity.mongo.PriceRollup.Stats;
+import com.pazar.backend.entity.mongo.PriceTick;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.repository.PriceRollupRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Price history: raw ticks in a time-series collection and hourly/daily rollups for trend charts.
+ *
+ * The write paths report listings after they have been persisted, like they do to {@link MarketPriceBook};
+ * that only queues a tick. A scheduled flush writes the queued ticks in batches, one insertMany each,
+ * and folds every batch into the rollups: the batch is pre-aggregated in memory, so it costs one
+ * upsert per product, market and day (plus one for all markets) however many ticks it has. The queue
+ * is bounded; ticks beyond it, and those of a failed insert, are dropped and counted. Rollup upserts
+ * the server reported as failed are retried on the next flushes and counted separately when they are
+ * given up. A bulk write that fails as a whole (e.g. the connection dropped) may have been applied in
+ * part, and the $inc's are not idempotent, so its upserts are counted as failed right away. Charts read only the rollups, so a year of daily points is one index range of
+ * 365 small documents.
+ */
+@Service
+public class PriceHistoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(PriceHistoryService.class);
+
+    /** Longest range of one history request, in days, per interval. */
+    private static final int MAX_HOURLY_DAYS = 31;
+    private static final int MAX_DAILY_DAYS = 731;
+    /** Flushes that try a batch's rollup upserts before they are given up. */
+    private static final int ROLLUP_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final PriceRollupRepository priceRollupRepository;
+    private final ZoneId zone;
+    private final Duration tickRetention;
+    private final int capacity;
+    private final int batchSize;
+
+    private final Queue<PriceTick> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder rollupsFailed = new LongAdder();
+    private final Queue<RollupRetry> rollupRetries = new ArrayDeque<>(); // guarded by flush
+    private volatile boolean collectionReady;
+
+    public PriceHistoryService(MongoTemplate mongoTemplate,
+                               PriceRollupRepository priceRollupRepository,
+                               @Value("${pazar.price-history.zone:Europe/Istanbul}") ZoneId zone,
+                               @Value("${pazar.price-history.tick-retention:P90D}") Duration tickRetention,
+                               @Value("${pazar.price-history.capacity:100000}") int capacity,
+                               @Value("${pazar.price-history.batch-size:1000}") int batchSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.priceRollupRepository = priceRollupRepository;
+        this.zone = zone;
+        this.tickRetention = tickRetention;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+    }
+
+    // Write notifications
+
+    /** A new listing, or a listing replaced as a whole. */
+    public void listingAdded(MarketProduct listing) {
+        record(listing, Instant.now());
+    }
+
+    public void listingsAdded(Collection<MarketProduct> listings) {
+        Instant now = Instant.now();
+        listings.forEach(listing -> record(listing, now));
+    }
+
+    public void pricesChanged(Collection<MarketProduct> listings) {
+        listingsAdded(listings);
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getRollupsFailedCount() {
+        return rollupsFailed.sum();
+    }
+
+    private void record(MarketProduct listing, Instant time) {
+        if (listing.getPrice() == null || listing.getMarketId() == null || listing.getProductId() == null) return;
+        if (pendingCount.incrementAndGet() > capacity) {
+            pendingCount.decrementAndGet();
+            dropped.increment();
+            return;
+        }
+        pending.add(new PriceTick(time, listing));
+    }
+
+    @Scheduled(fixedDelayString = "${pazar.price-history.flush-interval:PT1S}")
+    public synchronized void flush() {
+        long droppedBefore = dropped.sum();
+        for (int i = rollupRetries.size(); i > 0; i--) {
+            RollupRetry retry = rollupRetries.poll();
+            writeRollups(retry.upserts(), retry.attempt() + 1);
+        }
+        // Only what is queued now, so a steady stream of ticks cannot keep the scheduler thread here
+        int remaining = pendingCount.get();
+        List<PriceTick> batch;
+        while (remaining > 0 && !(batch = drain()).isEmpty()) {
+            remaining -= batch.size();
+            try {
+                ensureCollection();
+                mongoTemplate.insert(batch, PriceTick.class);
+            } catch (RuntimeException e) {
+                dropped.add(batch.size());
+                log.warn("Price history: writing {} ticks failed: {}", batch.size(), e.getMessage());
+                continue;
+            }
+            writeRollups(rollups(batch), 1);
+        }
+        long lost = dropped.sum() - droppedBefore;
+        if (lost > 0) log.warn("Price history: {} ticks dropped since the last flush", lost);
+    }
+
+    /** Writes what is still queued, so a regular shutdown loses no ticks. */
+    @PreDestroy
+    public void close() {
+        flush();
+    }
+
+    private List<PriceTick> drain() {
+        List<PriceTick> batch = new ArrayList<>();
+        PriceTick tick;
+        while (batch.size() < batchSize && (tick = pending.poll()) != null) {
+            batch.add(tick);
+        }
+        pendingCount.addAndGet(-batch.size());
+        return batch;
+    }
+
+    /**
+     * Creates the time-series collection on the first write, so startup needs no database. A plain
+     * insert would create a regular collection instead.
+     */
+    private void ensureCollection() {
+        if (collectionReady) return;
+        String name = mongoTemplate.getCollectionName(PriceTick.class);
+        if (!mongoTemplate.collectionExists(name)) {
+            try {
+                mongoTemplate.getDb().createCollection(name, new CreateCollectionOptions()
+                        .timeSeriesOptions(new TimeSeriesOptions("time").metaField("source").granularity(TimeSeriesGranularity.HOURS))
+                        .expireAfter(tickRetention.toSeconds(), TimeUnit.SECONDS));
+            } catch (MongoCommandException e) {
+                if (!"NamespaceExists".equals(e.getErrorCodeName())) throw e; // created by another instance meanwhile
+            }
+        }
+        collectionReady = true;
+    }
+
+    /** Upserts the rollups; those that fail are queued for the next flush, or given up after the last attempt. */
+    private void writeRollups(Map<String, Update> upserts, int attempt) {
+        Map<String, Update> failed = upsertRollups(upserts);
+        if (failed.isEmpty()) return;
+        if (attempt < ROLLUP_ATTEMPTS) {
+            rollupRetries.add(new RollupRetry(failed, attempt));
+        } else {
+            rollupsFailed.add(failed.size());
+            log.error("Price history: gave up on {} rollup updates after {} attempts", failed.size(), attempt);
+        }
+    }
+
+    /**
+     * The upserts the server reported as not applied. When the write fails as a whole it is unknown which
+     * were applied; none is returned for a retry, which could count some twice, all are counted as failed.
+     */
+    private Map<String, Update> upsertRollups(Map<String, Update> upserts) {
+        List<String> ids = new ArrayList<>(upserts.keySet());
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PriceRollup.class);
+        ids.forEach(id -> bulk.upsert(query(where("_id").is(id)), upserts.get(id)));
+        try {
+            bulk.execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<String, Update> failed = new LinkedHashMap<>();
+            e.getErrors().forEach(error -> failed.put(ids.get(error.getIndex()), upserts.get(ids.get(error.getIndex()))));
+            log.warn("Price history: {} of {} rollup updates failed: {}", failed.size(), ids.size(), e.getMessage());
+            return failed;
+        } catch (RuntimeException e) {
+            rollupsFailed.add(ids.size());
+            log.error("Price history: writing {} rollup updates failed, not retried: {}", ids.size(), e.getMessage());
+            return Map.of();
+        }
+    }
+
+    /** The batch pre-aggregated per rollup document, as upserts by _id. */
+    private Map<String, Update> rollups(List<PriceTick> ticks) {
+        Map<String, Rollup> rollups = new HashMap<>();
+        for (PriceTick tick : ticks) {
+            ZonedDateTime local = tick.getTime().atZone(zone);
+            PriceTick.Source source = tick.getSource();
+            for (String marketId : List.of(source.marketId(), PriceRollup.ALL_MARKETS)) {
+                rollups.computeIfAbsent(PriceRollup.id(source.productId(), marketId, local.toLocalDate()),
+                                id -> new Rollup(source.productId(), marketId, local.toLocalDate().atStartOfDay(zone).toInstant()))
+                        .add(local.getHour(), tick.getPrice());
+            }
+        }
+        Map<String, Update> upserts = new LinkedHashMap<>();
+        rollups.forEach((id, rollup) -> upserts.put(id, rollup.update()));
+        return upserts;
+    }
+
+    private record RollupRetry(Map<String, Update> upserts, int attempt) {}
+
+    /** The rollup increments of one batch for one product, market and day. */
+    private static final class Rollup {
+        final String productId;
+        final String marketId;
+        final Instant day;
+        final Stats daily = new Stats();
+        final Map<Integer, Stats> hourly = new TreeMap<>();
+
+        Rollup(String productId, String marketId, Instant day) {
+            this.productId = productId;
+            this.marketId = marketId;
+            this.day = day;
+        }
+
+        void add(int hour, double price) {
+            daily.add(price);
+            hourly.computeIfAbsent(hour, h -> new Stats()).add(price);
+        }
+
+        Update update() {
+            Update update = new Update()
+                    .setOnInsert("productId", productId)
+                    .setOnInsert("marketId", marketId)
+                    .setOnInsert("day", day);
+            fold(update, "daily", daily);
+            hourly.forEach((hour, stats) -> fold(update, "hourly." + hour, stats));
+            return update;
+        }
+
+        private static void fold(Update update, String path, Stats stats) {
+            update.min(path + ".min", stats.getMin())
+                    .max(path + ".max", stats.getMax())
+                    .inc(path + ".sum", stats.getSum())
+                    .inc(path + ".count", stats.getCount());
+        }
+    }
+
+    // Reads
+
+    /**
+     * Hourly or daily points of a product between two days (inclusive, in the history's time zone);
+     * {@code marketId} null for all markets. Null for an unknown product.
+     *
+     * @throws IllegalArgumentException if the range is reversed or longer than the interval allows
+     */
+    public PriceHistoryResponse getHistory(String productId, String marketId, Interval interval, LocalDate from, LocalDate to) {
+        if (!mongoTemplate.exists(query(where("_id").is(productId)), Product.class)) return null;
+        LocalDate last = to != null ? to : LocalDate.now(zone);
+        LocalDate first = from != null ? from : last.minusDays(interval == Interval.HOUR ? 0 : 29);
+        int maxDays = interval == Interval.HOUR ? MAX_HOURLY_DAYS : MAX_DAILY_DAYS;
+        if (first.isAfter(last)) throw new IllegalArgumentException("from must not be after to");
+        if (ChronoUnit.DAYS.between(first, last) + 1 > maxDays) {
+            throw new IllegalArgumentException(interval.name().toLowerCase() + " history spans at most " + maxDays + " days");
+        }
+
+        String market = marketId != null ? marketId : PriceRollup.ALL_MARKETS;
+        List<PriceRollup> rollups = priceRollupRepository.findByProductIdAndMarketIdAndDayBetweenOrderByDayAsc(productId, market,
+                Range.closed(first.atStartOfDay(zone).toInstant(), last.atStartOfDay(zone).toInstant()));
+
+        List<Point> points = new ArrayList<>();
+        for (PriceRollup rollup : rollups) {
+            if (interval == Interval.DAY) {
+                if (rollup.getDaily() != null) points.add(point(rollup.getDay(), rollup.getDaily()));
+            } else if (rollup.getHourly() != null) {
+                ZonedDateTime day = rollup.getDay().atZone(zone);
+                rollup.getHourly().entrySet().stream()
+                        .sorted(Comparator.comparingInt(entry -> Integer.parseInt(entry.getKey())))
+                        .forEach(entry -> points.add(point(day.withHour(Integer.parseInt(entry.getKey())).toInstant(), entry.getValue())));
+            }
+        }
+        return new PriceHistoryResponse(productId, market, interval, zone.getId(), points);
+    }
+
+    private static Point point(Instant time, Stats stats) {
+        return new Point(time, stats.getMin(), stats.getAverage(), stats.getMax(), stats.getCount());
+    }
+}
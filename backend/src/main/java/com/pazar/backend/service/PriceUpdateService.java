@@ -0,0 +1,212 @@
+package com.pazar.backend.service;
+
+import com.pazar.backend.dto.PriceUpdateReport;
+import com.pazar.backend.dto.PriceUpdateReport.ItemResult;
+import com.pazar.backend.dto.PriceUpdateReport.Status;
+import com.pazar.backend.dto.PriceUpdateRequest;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.repository.MarketProductRepository;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Batched price changes of existing listings.
+ *
+ * A batch costs at most two reads (listings by id, listings by product) and one unordered bulkWrite
+ * of {@code $set} operations, however many items it has; a third read finds the listings that were
+ * deleted meanwhile, only when the write matched fewer listings than it addressed. Each item is reported on its own, and the
+ * price book and statistics are refreshed once for the whole batch after the write.
+ *
+ * Sellers can only change the listings they claimed; admins can change any listing.
+ */
+@Service
+public class PriceUpdateService {
+
+    public static final int MAX_BATCH_SIZE = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final MarketProductRepository marketProductRepository;
+    private final MarketPriceBook marketPriceBook;
+    private final MarketStatistics marketStatistics;
+    private final MarketEventHub marketEventHub;
+    private final PriceHistoryService priceHistoryService;
+
+    public PriceUpdateService(MongoTemplate mongoTemplate,
+                              MarketProductRepository marketProductRepository,
+                              MarketPriceBook marketPriceBook,
+                              MarketStatistics marketStatistics,
+                              MarketEventHub marketEventHub,
+                              PriceHistoryService priceHistoryService) {
+        this.mongoTemplate = mongoTemplate;
+        this.marketProductRepository = marketProductRepository;
+        this.marketPriceBook = marketPriceBook;
+        this.marketStatistics = marketStatistics;
+        this.marketEventHub = marketEventHub;
+        this.priceHistoryService = priceHistoryService;
+    }
+
+    /** {@code sellerEmail} is the caller; with {@code admin} the listings' owners are not checked. */
+    public PriceUpdateReport updatePrices(String marketId, List<PriceUpdateRequest> updates, String sellerEmail, boolean admin) {
+        ItemResult[] results = new ItemResult[updates.size()];
+        Map<Integer, MarketProduct> targets = resolve(marketId, updates, results, sellerEmail, admin);
+
+        // One $set per resolved item, in request order; bulk indexes map back through `order`
+        List<Integer> order = new ArrayList<>(targets.keySet());
+        Collections.sort(order);
+        Set<Integer> failed = new HashSet<>();
+        BulkWriteResult written = null;
+        if (!order.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, MarketProduct.class);
+            for (int index : order) {
+                bulk.updateOne(query(where("_id").is(targets.get(index).getId()).and("marketId").is(marketId)),
+                        new Update().set("price", updates.get(index).price()));
+            }
+            try {
+                written = bulk.execute();
+            } catch (BulkOperationException e) {
+                written = e.getResult();
+                for (BulkWriteError error : e.getErrors()) {
+                    int index = order.get(error.getIndex());
+                    failed.add(index);
+                    results[index] = new ItemResult(index, Status.FAILED, targets.get(index).getId(), null, null, error.getMessage());
+                }
+            }
+        }
+        if (written != null && written.getMatchedCount() < order.size() - failed.size()) {
+            markDeleted(marketId, order, failed, targets, results);
+        }
+
+        List<MarketProduct> before = new ArrayList<>();
+        List<MarketProduct> after = new ArrayList<>();
+        for (int index : order) {
+            if (failed.contains(index)) continue;
+            MarketProduct previous = targets.get(index);
+            MarketProduct current = withPrice(previous, updates.get(index).price());
+            before.add(previous);
+            after.add(current);
+            results[index] = new ItemResult(index, Status.UPDATED, previous.getId(), previous.getPrice(), current.getPrice(), null);
+        }
+        marketPriceBook.listingsAdded(after); // replaces the cached listings with the same ids
+        before.forEach(marketStatistics::listingRemoved);
+        after.forEach(marketStatistics::listingAdded);
+        marketEventHub.pricesChanged(after);
+        priceHistoryService.pricesChanged(after);
+
+        return new PriceUpdateReport(marketId, updates.size(), after.size(), updates.size() - after.size(), Arrays.asList(results));
+    }
+
+    /**
+     * Validates the items and finds their listings with one query per addressing mode. Invalid and
+     * unknown items and other sellers' listings get their result right away; the others are returned
+     * by request index.
+     */
+    private Map<Integer, MarketProduct> resolve(String marketId, List<PriceUpdateRequest> updates, ItemResult[] results,
+                                                String sellerEmail, boolean admin) {
+        Set<String> listingIds = new HashSet<>();
+        Set<String> productIds = new HashSet<>();
+        for (int i = 0; i < updates.size(); i++) {
+            PriceUpdateRequest update = updates.get(i);
+            String problem = validate(update);
+            if (problem != null) {
+                results[i] = new ItemResult(i, Status.INVALID, update != null ? update.listingId() : null, null, null, problem);
+            } else if (update.listingId() != null) {
+                listingIds.add(update.listingId());
+            } else {
+                productIds.add(update.productId());
+            }
+        }
+
+        Map<String, MarketProduct> byId = new HashMap<>();
+        Map<String, MarketProduct> byStall = new HashMap<>();
+        if (!listingIds.isEmpty()) {
+            marketProductRepository.findByMarketIdAndIdIn(marketId, listingIds)
+                    .forEach(listing -> byId.put(listing.getId(), listing));
+        }
+        if (!productIds.isEmpty()) {
+            marketProductRepository.findByMarketIdAndProductIdIn(marketId, productIds)
+                    .forEach(listing -> byStall.put(stallKey(listing.getProductId(), listing.getStallNumber()), listing));
+        }
+
+        Map<Integer, MarketProduct> targets = new HashMap<>();
+        Map<String, Integer> targetIndex = new HashMap<>();
+        for (int i = 0; i < updates.size(); i++) {
+            if (results[i] != null) continue;
+            PriceUpdateRequest update = updates.get(i);
+            MarketProduct listing = update.listingId() != null
+                    ? byId.get(update.listingId())
+                    : byStall.get(stallKey(update.productId(), update.stallNumber()));
+            if (listing == null) {
+                results[i] = new ItemResult(i, Status.NOT_FOUND, update.listingId(), null, null, "No such listing in market " + marketId);
+            } else if (!admin && (listing.getSellerEmail() == null || !listing.getSellerEmail().equals(sellerEmail))) {
+                results[i] = new ItemResult(i, Status.FORBIDDEN, listing.getId(), null, null, "Listing belongs to another seller");
+            } else {
+                // An unordered bulk write has no defined order, so only the last update of a listing is applied
+                Integer earlier = targetIndex.put(listing.getId(), i);
+                if (earlier != null) {
+                    targets.remove(earlier);
+                    results[earlier] = new ItemResult(earlier, Status.SUPERSEDED, listing.getId(), null, null,
+                            "superseded by update " + i + " of the same listing");
+                }
+                targets.put(i, listing);
+            }
+        }
+        return targets;
+    }
+
+    /** Reports the targets that no longer exist as NOT_FOUND, so they stay out of the cache, statistics and events. */
+    private void markDeleted(String marketId, List<Integer> order, Set<Integer> failed,
+                             Map<Integer, MarketProduct> targets, ItemResult[] results) {
+        Set<String> ids = new HashSet<>();
+        order.forEach(index -> ids.add(targets.get(index).getId()));
+        Set<String> remaining = new HashSet<>();
+        marketProductRepository.findByMarketIdAndIdIn(marketId, ids).forEach(listing -> remaining.add(listing.getId()));
+        for (int index : order) {
+            String id = targets.get(index).getId();
+            if (!failed.contains(index) && !remaining.contains(id)) {
+                failed.add(index);
+                results[index] = new ItemResult(index, Status.NOT_FOUND, id, null, null, "Listing was deleted during the update");
+            }
+        }
+    }
+
+    private static String validate(PriceUpdateRequest update) {
+        if (update == null) return "update is empty";
+        if (update.price() == null || !Double.isFinite(update.price()) || update.price() <= 0) {
+            return "price must be a positive number";
+        }
+        if (update.listingId() == null && (update.productId() == null || update.stallNumber() == null)) {
+            return "listingId or productId and stallNumber are required";
+        }
+        return null;
+    }
+
+    private static String stallKey(String productId, String stallNumber) {
+        return productId + '\u0000' + stallNumber;
+    }
+
+    /** Cached listings are immutable, so a price change produces a copy. */
+    private static MarketProduct withPrice(MarketProduct listing, Double price) {
+        MarketProduct copy = new MarketProduct();
+        copy.setId(listing.getId());
+        copy.setMarketId(listing.getMarketId());
+        copy.setProductId(listing.getProductId());
+        copy.setPrice(price);
+        copy.setStallNumber(listing.getStallNumber());
+        copy.setX(listing.getX());
+        copy.setY(listing.getY());
+        copy.setZ(listing.getZ());
+        copy.setVendorName(listing.getVendorName());
+        copy.setSellerEmail(listing.getSellerEmail());
+        return copy;
+    }
+}
@@ -0,0 +1,271 @@
+package com.pazar.backend.service;
+
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory inverted index over the product catalog.
+ *
+ * Product names and categories are folded (Turkish lower-casing, then İ/ı, ş, ğ, ç, ö, ü
+ * mapped to their ASCII base letters) and split into tokens. Every query token must match a
+ * product token exactly or as a prefix; hits are ranked by where and how well they match.
+ * Prefix expansion is capped by the number of candidate products, so that short queries on a large
+ * catalog cost about the same as long ones; the exact token and then the shortest (closest) tokens
+ * are expanded first, since those are the matches that rank highest. Postings are kept per token
+ * length, so that order is walked directly and a short prefix never sorts all of its matches.
+ *
+ * Writes on this instance are indexed as they happen; the whole index is rebuilt from Mongo every
+ * {@code pazar.search.refresh-interval} to pick up products written by other instances. A rebuild
+ * swaps in a complete new index, so searches never see a partial one, and products indexed or removed
+ * here while it loaded are carried over.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final Locale TURKISH = Locale.forLanguageTag("tr");
+    private static final int MAX_PREFIX_CANDIDATES = 10_000;
+
+    private static final int SCORE_NAME_EXACT = 10;
+    private static final int SCORE_NAME_PREFIX = 6;
+    private static final int SCORE_CATEGORY_EXACT = 4;
+    private static final int SCORE_CATEGORY_PREFIX = 2;
+    private static final int SCORE_NAME_STARTS_WITH_QUERY = 5;
+
+    private final ProductRepository productRepository;
+
+    private volatile Catalog catalog = new Catalog();
+    private Set<String> changedDuringRebuild; // guarded by this, null when no rebuild runs
+    private final ReentrantLock rebuilding = new ReentrantLock();
+
+    public ProductSearchIndex(ProductRepository productRepository) {
+        this.productRepository = productRepository;
+    }
+
+    /** Run by StartupTasks after startup, then periodically; rebuilds never overlap. */
+    @Scheduled(initialDelayString = "${pazar.search.refresh-interval:PT5M}",
+               fixedDelayString = "${pazar.search.refresh-interval:PT5M}")
+    public void rebuild() {
+        rebuilding.lock();
+        try {
+            rebuildCatalog();
+        } finally {
+            rebuilding.unlock();
+        }
+    }
+
+    private void rebuildCatalog() {
+        long start = System.nanoTime();
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        List<Product> products;
+        try {
+            products = productRepository.findAll();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changedDuringRebuild = null;
+            }
+            throw e;
+        }
+        Catalog fresh = new Catalog();
+        products.forEach(fresh::index);
+        synchronized (this) {
+            for (String productId : changedDuringRebuild) {
+                IndexedProduct doc = catalog.documents.get(productId);
+                if (doc != null) fresh.index(doc.product());
+                else fresh.remove(productId);
+            }
+            changedDuringRebuild = null;
+            catalog = fresh;
+        }
+        log.info("Product search index built with {} products in {} ms",
+                products.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public synchronized void index(Product product) {
+        if (product == null || product.getId() == null) return;
+        catalog.index(product);
+        if (changedDuringRebuild != null) changedDuringRebuild.add(product.getId());
+    }
+
+    public synchronized void remove(String productId) {
+        catalog.remove(productId);
+        if (changedDuringRebuild != null) changedDuringRebuild.add(productId);
+    }
+
+    public Optional<Product> get(String productId) {
+        IndexedProduct doc = catalog.documents.get(productId);
+        return doc == null ? Optional.empty() : Optional.of(doc.product());
+    }
+
+    public int size() {
+        return catalog.documents.size();
+    }
+
+    public List<Product> search(String query, int limit) {
+        List<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) return List.of();
+
+        Catalog catalog = this.catalog;
+        // Intersect candidates, starting from the most selective query token
+        List<Set<String>> candidateSets = new ArrayList<>(queryTokens.size());
+        for (String token : queryTokens) {
+            Set<String> ids = catalog.candidatesFor(token);
+            if (ids.isEmpty()) return List.of();
+            candidateSets.add(ids);
+        }
+        candidateSets.sort(Comparator.comparingInt(Set::size));
+
+        String foldedQuery = String.join(" ", queryTokens);
+        PriorityQueue<ScoredProduct> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+        for (String id : candidateSets.get(0)) {
+            if (!containsInAll(candidateSets, id)) continue;
+            IndexedProduct doc = catalog.documents.get(id);
+            if (doc == null) continue;
+
+            top.offer(new ScoredProduct(doc, score(doc, queryTokens, foldedQuery)));
+            if (top.size() > limit) top.poll();
+        }
+
+        List<ScoredProduct> ranked = new ArrayList<>(top);
+        ranked.sort(RANKING);
+        List<Product> results = new ArrayList<>(ranked.size());
+        for (ScoredProduct scored : ranked) results.add(scored.doc().product());
+        return results;
+    }
+
+    private static boolean containsInAll(List<Set<String>> sets, String id) {
+        for (int i = 1; i < sets.size(); i++) {
+            if (!sets.get(i).contains(id)) return false;
+        }
+        return true;
+    }
+
+    private static int score(IndexedProduct doc, List<String> queryTokens, String foldedQuery) {
+        int score = 0;
+        for (String queryToken : queryTokens) {
+            int best = 0;
+            for (String token : doc.nameTokens()) {
+                if (token.equals(queryToken)) best = Math.max(best, SCORE_NAME_EXACT);
+                else if (token.startsWith(queryToken)) best = Math.max(best, SCORE_NAME_PREFIX);
+            }
+            for (String token : doc.categoryTokens()) {
+                if (token.equals(queryToken)) best = Math.max(best, SCORE_CATEGORY_EXACT);
+                else if (token.startsWith(queryToken)) best = Math.max(best, SCORE_CATEGORY_PREFIX);
+            }
+            score += best;
+        }
+        if (doc.foldedName().startsWith(foldedQuery)) score += SCORE_NAME_STARTS_WITH_QUERY;
+        return score;
+    }
+
+    static String fold(String text) {
+        if (text == null) return "";
+        String lower = text.toLowerCase(TURKISH);
+        StringBuilder sb = new StringBuilder(lower.length());
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            switch (c) {
+                case 'ı', 'î' -> sb.append('i');
+                case 'ş' -> sb.append('s');
+                case 'ğ' -> sb.append('g');
+                case 'ç' -> sb.append('c');
+                case 'ö' -> sb.append('o');
+                case 'ü', 'û' -> sb.append('u');
+                case 'â' -> sb.append('a');
+                case '\u0307' -> { } // combining dot left over from non-Turkish "İ" lower-casing
+                default -> sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+
+    static List<String> tokenize(String text) {
+        String folded = fold(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static final Comparator<ScoredProduct> RANKING = Comparator
+            .comparingInt(ScoredProduct::score).reversed()
+            .thenComparingInt(s -> s.doc().foldedName().length())
+            .thenComparing(s -> s.doc().foldedName());
+
+    /** Documents and postings; mutated only under the index's lock, read concurrently by searches. */
+    private static final class Catalog {
+        final Map<String, IndexedProduct> documents = new ConcurrentHashMap<>();
+        // token length -> token -> product ids
+        final ConcurrentSkipListMap<Integer, ConcurrentSkipListMap<String, Set<String>>> postings = new ConcurrentSkipListMap<>();
+
+        void index(Product product) {
+            remove(product.getId());
+            IndexedProduct doc = new IndexedProduct(product,
+                    fold(product.getName()),
+                    tokenize(product.getName()),
+                    tokenize(product.getCategory()));
+            documents.put(product.getId(), doc);
+            for (String token : doc.nameTokens()) addPosting(token, product.getId());
+            for (String token : doc.categoryTokens()) addPosting(token, product.getId());
+        }
+
+        void remove(String productId) {
+            IndexedProduct doc = documents.remove(productId);
+            if (doc == null) return;
+            for (String token : doc.nameTokens()) removePosting(token, productId);
+            for (String token : doc.categoryTokens()) removePosting(token, productId);
+        }
+
+        /** Products with a token starting with {@code token}: exact match first, then shortest tokens, up to the cap. */
+        Set<String> candidatesFor(String token) {
+            Set<String> ids = new HashSet<>();
+            // Lengths upwards, each length in token order: the exact token comes first, the shortest matches next
+            for (ConcurrentSkipListMap<String, Set<String>> tokens : postings.tailMap(token.length()).values()) {
+                for (Set<String> posting : tokens.subMap(token, true, token + Character.MAX_VALUE, false).values()) {
+                    if (ids.size() >= MAX_PREFIX_CANDIDATES) return ids;
+                    ids.addAll(posting);
+                }
+            }
+            return ids;
+        }
+
+        private void addPosting(String token, String productId) {
+            postings.computeIfAbsent(token.length(), length -> new ConcurrentSkipListMap<>())
+                    .computeIfAbsent(token, t -> ConcurrentHashMap.newKeySet()).add(productId);
+        }
+
+        private void removePosting(String token, String productId) {
+            ConcurrentSkipListMap<String, Set<String>> tokens = postings.get(token.length());
+            if (tokens == null) return;
+            tokens.computeIfPresent(token, (t, ids) -> {
+                ids.remove(productId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    private record IndexedProduct(Product product, String foldedName,
+                                  List<String> nameTokens, List<String> categoryTokens) {}
+
+    private record ScoredProduct(IndexedProduct doc, int score) {}
+}
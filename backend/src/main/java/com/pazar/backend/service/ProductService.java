@@ -1,57 +1,171 @@
 package com.pazar.backend.service;
 
+import com.pazar.backend.dto.CursorPage;
+import com.pazar.backend.dto.MarketProductRequest;
+import com.pazar.backend.dto.MarketProductResponse;
+import com.pazar.backend.dto.PriceOption;
+import com.pazar.backend.dto.ProductPricesResponse;
+import com.pazar.backend.dto.ProductRequest;
+import com.pazar.backend.dto.ProductResponse;
+import com.pazar.backend.dto.ProductSearchResponse;
+import com.pazar.backend.dto.ProductSearchResult;
 import com.pazar.backend.entity.mongo.MarketProduct;
 import com.pazar.backend.entity.mongo.Product;
 import com.pazar.backend.repository.MarketProductRepository;
 import com.pazar.backend.repository.ProductRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pazar.backend.repository.ReactiveMarketProductRepository;
+import com.pazar.backend.repository.ReactiveProductRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ProductService {
 
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final ProductRepository productRepository;
     private final MarketProductRepository marketProductRepository;
-    private final ObjectMapper objectMapper;
+    private final ReactiveProductRepository reactiveProductRepository;
+    private final ReactiveMarketProductRepository reactiveMarketProductRepository;
+    private final ProductSearchIndex productSearchIndex;
+    private final MarketPriceBook marketPriceBook;
+    private final MarketStatistics marketStatistics;
+    private final MarketEventHub marketEventHub;
+    private final PriceHistoryService priceHistoryService;
+    private final IdGenerator idGenerator;
 
     public ProductService(ProductRepository productRepository, 
                           MarketProductRepository marketProductRepository,
-                          ObjectMapper objectMapper) {
+                          ReactiveProductRepository reactiveProductRepository,
+                          ReactiveMarketProductRepository reactiveMarketProductRepository,
+                          ProductSearchIndex productSearchIndex,
+                          MarketPriceBook marketPriceBook,
+                          MarketStatistics marketStatistics,
+                          MarketEventHub marketEventHub,
+                          PriceHistoryService priceHistoryService,
+                          IdGenerator idGenerator) {
         this.productRepository = productRepository;
         this.marketProductRepository = marketProductRepository;
-        this.objectMapper = objectMapper;
+        this.reactiveProductRepository = reactiveProductRepository;
+        this.reactiveMarketProductRepository = reactiveMarketProductRepository;
+        this.productSearchIndex = productSearchIndex;
+        this.marketPriceBook = marketPriceBook;
+        this.marketStatistics = marketStatistics;
+        this.marketEventHub = marketEventHub;
+        this.priceHistoryService = priceHistoryService;
+        this.idGenerator = idGenerator;
     }
 
-    public List<Map<String, Object>> getAllProducts() {
+    public List<ProductResponse> getAllProducts() {
         return productRepository.findAll().stream()
-                .map(this::convertToMap)
+                .map(ProductResponse::from)
                 .collect(Collectors.toList());
     }
 
-    public List<Map<String, Object>> searchProducts(String query, String marketId) {
-        // Note: marketId is currently unused as per original implementation logic
-        return productRepository.searchByNameOrCategory(query).stream()
-                .map(this::convertToMap)
-                .collect(Collectors.toList());
+    public CursorPage<ProductResponse> getProductsPage(String after, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<Product> rows = after == null
+                ? productRepository.findAllByOrderByIdAsc(Limit.of(pageSize + 1))
+                : productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, Product::getId, ProductResponse::from);
+    }
+
+    /** Cursor-backed stream of the whole catalog; the caller must close it. */
+    public Stream<ProductResponse> streamAllProducts() {
+        return productRepository.streamAllByOrderByIdAsc().map(ProductResponse::from);
+    }
+
+    /** In-memory search; with a market, one non-blocking query fetches the listings of the hits. */
+    public Mono<ProductSearchResponse> searchProducts(String query, String marketId) {
+        List<Product> hits = productSearchIndex.search(query, MAX_SEARCH_RESULTS);
+        Mono<List<ProductSearchResult>> results;
+        if (marketId == null || hits.isEmpty()) {
+            results = Mono.just(hits.stream()
+                    .map(ProductSearchResult::of)
+                    .collect(Collectors.toList()));
+        } else {
+            List<String> productIds = hits.stream().map(Product::getId).collect(Collectors.toList());
+            results = reactiveMarketProductRepository.findByMarketIdAndProductIdIn(marketId, productIds)
+                    .collectList()
+                    .map(listings -> enrich(hits, listings));
+        }
+        return results.map(found -> new ProductSearchResponse(query, found, found.size(), generateAISuggestions(query)));
+    }
+
+    private static List<ProductSearchResult> enrich(List<Product> hits, List<MarketProduct> marketListings) {
+        // Group the listings of the matched products in a single pass
+        Map<String, List<MarketProduct>> listingsByProduct = new HashMap<>();
+        Map<String, MarketProduct> cheapestByProduct = new HashMap<>();
+        for (MarketProduct listing : marketListings) {
+            listingsByProduct.computeIfAbsent(listing.getProductId(), id -> new ArrayList<>()).add(listing);
+            cheapestByProduct.merge(listing.getProductId(), listing,
+                    (current, candidate) -> priceOf(candidate) < priceOf(current) ? candidate : current);
+        }
+
+        List<ProductSearchResult> results = new ArrayList<>(hits.size());
+        for (Product product : hits) {
+            List<MarketProduct> listings = listingsByProduct.get(product.getId());
+            if (listings == null) {
+                results.add(ProductSearchResult.of(product));
+                continue;
+            }
+            List<PriceOption> allPrices = new ArrayList<>(listings.size());
+            for (MarketProduct listing : listings) {
+                allPrices.add(PriceOption.from(listing));
+            }
+            results.add(ProductSearchResult.of(product, cheapestByProduct.get(product.getId()), allPrices));
+        }
+        return results;
     }
 
-    public List<Map<String, Object>> getProductsByCategory(String category) {
+    public List<ProductResponse> getProductsByCategory(String category) {
         return productRepository.findByCategoryIgnoreCase(category).stream()
-                .map(this::convertToMap)
+                .map(ProductResponse::from)
                 .collect(Collectors.toList());
     }
 
-    public List<Map<String, Object>> getMarketProducts(String marketId) {
+    public List<MarketProductResponse> getMarketProducts(String marketId) {
         return marketProductRepository.findByMarketId(marketId).stream()
-                .map(this::convertToMap)
+                .map(MarketProductResponse::from)
                 .collect(Collectors.toList());
     }
 
-    public Map<String, Object> getProductById(String productId) {
+    public CursorPage<MarketProductResponse> getMarketProductsPage(String marketId, String after, int limit) {
+        int pageSize = clampPageSize(limit);
+        List<MarketProduct> rows = after == null
+                ? marketProductRepository.findByMarketIdOrderByIdAsc(marketId, Limit.of(pageSize + 1))
+                : marketProductRepository.findByMarketIdAndIdGreaterThanOrderByIdAsc(marketId, after, Limit.of(pageSize + 1));
+        return CursorPage.of(rows, pageSize, MarketProduct::getId, MarketProductResponse::from);
+    }
+
+    /** Cursor-backed stream of a market's listings; the caller must close it. */
+    public Stream<MarketProductResponse> streamMarketProducts(String marketId) {
+        return marketProductRepository.streamByMarketIdOrderByIdAsc(marketId).map(MarketProductResponse::from);
+    }
+
+    /** Empty when the product does not exist. */
+    public Mono<ProductPricesResponse> getProductPrices(String productId, String marketId) {
+        return reactiveProductRepository.findById(productId)
+                .zipWith(marketPriceBook.listingsAsync(marketId, productId))
+                .map(loaded -> ProductPricesResponse.of(
+                        ProductResponse.from(loaded.getT1()),
+                        loaded.getT2().stream().map(MarketProductResponse::from).collect(Collectors.toList())));
+    }
+
+    public MarketProductResponse getCheapestListing(String productId, String marketId) {
+        return marketPriceBook.cheapest(marketId, productId)
+                .map(MarketProductResponse::from)
+                .orElse(null);
+    }
+
+    public ProductResponse getProductById(String productId) {
         return productRepository.findById(productId)
-                .map(this::convertToMap)
+                .map(ProductResponse::from)
                 .orElse(null);
     }
 
@@ -76,56 +190,85 @@ public class ProductService {
     }
 
     // Admin CRUD operations
-    public Map<String, Object> createProduct(Map<String, Object> productData) {
-        Product product = convertToEntity(productData, Product.class);
+    public ProductResponse createProduct(ProductRequest productData) {
+        Product product = productData.toEntity();
+        boolean isNew = product.getId() == null || !productRepository.existsById(product.getId());
         if (product.getId() == null) {
-            product.setId("prod_" + System.currentTimeMillis());
+            product.setId(idGenerator.nextId("prod_"));
         }
         Product savedProduct = productRepository.save(product);
-        return convertToMap(savedProduct);
+        productSearchIndex.index(savedProduct);
+        if (isNew) marketStatistics.productCreated(savedProduct.getId());
+        return ProductResponse.from(savedProduct);
     }
 
-    public Map<String, Object> updateProduct(String productId, Map<String, Object> productData) {
+    public ProductResponse updateProduct(String productId, ProductRequest productData) {
         if (!productRepository.existsById(productId)) return null;
         
-        Product product = convertToEntity(productData, Product.class);
+        Product product = productData.toEntity();
         product.setId(productId);
+        String previousCategory = productSearchIndex.get(productId).map(Product::getCategory).orElse(null);
         
         Product updatedProduct = productRepository.save(product);
-        return convertToMap(updatedProduct);
+        productSearchIndex.index(updatedProduct);
+        if (!Objects.equals(previousCategory, updatedProduct.getCategory())) {
+            // Move this product's listings between the per-category price aggregates
+            for (MarketProduct listing : marketProductRepository.findByProductId(productId)) {
+                marketStatistics.listingRemoved(listing, Objects.requireNonNullElse(previousCategory, MarketStatistics.UNKNOWN_CATEGORY));
+                marketStatistics.listingAdded(listing, Objects.requireNonNullElse(updatedProduct.getCategory(), MarketStatistics.UNKNOWN_CATEGORY));
+            }
+        }
+        return ProductResponse.from(updatedProduct);
     }
 
     public boolean deleteProduct(String productId) {
         if (productRepository.existsById(productId)) {
             productRepository.deleteById(productId);
+            productSearchIndex.remove(productId);
+            marketPriceBook.evictProduct(productId);
+            marketStatistics.productDeleted(productId);
             return true;
         }
         return false;
     }
 
-    public Map<String, Object> addProductToMarket(String marketId, Map<String, Object> marketProductData) {
-        MarketProduct marketProduct = convertToEntity(marketProductData, MarketProduct.class);
-        marketProduct.setMarketId(marketId);
+    public MarketProductResponse addProductToMarket(String marketId, MarketProductRequest marketProductData) {
+        MarketProduct marketProduct = marketProductData.toEntity(marketId);
         
+        MarketProduct previous = null;
         if (marketProduct.getId() == null) {
-            marketProduct.setId(UUID.randomUUID().toString());
+            marketProduct.setId(idGenerator.nextId("lst_"));
+        } else {
+            previous = marketProductRepository.findById(marketProduct.getId()).orElse(null);
         }
         
         MarketProduct saved = marketProductRepository.save(marketProduct);
-        return convertToMap(saved);
+        if (previous != null) {
+            marketPriceBook.listingsRemoved(List.of(previous));
+            marketStatistics.listingRemoved(previous);
+        }
+        marketPriceBook.listingAdded(saved);
+        marketStatistics.listingAdded(saved);
+        marketEventHub.listingAdded(saved);
+        priceHistoryService.listingAdded(saved);
+        return MarketProductResponse.from(saved);
     }
 
     public boolean removeProductFromMarket(String marketId, String productId, String stallNumber) {
-        marketProductRepository.deleteByMarketIdAndProductIdAndStallNumber(marketId, productId, stallNumber);
-        return true; 
+        List<MarketProduct> removed = marketProductRepository
+                .deleteByMarketIdAndProductIdAndStallNumber(marketId, productId, stallNumber);
+        marketPriceBook.listingsRemoved(removed);
+        removed.forEach(marketStatistics::listingRemoved);
+        marketEventHub.listingsRemoved(removed);
+        return !removed.isEmpty();
     }
 
-    private <T> Map<String, Object> convertToMap(T entity) {
-        return objectMapper.convertValue(entity, Map.class);
+    private static int clampPageSize(int limit) {
+        return Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
     }
 
-    private <T> T convertToEntity(Map<String, Object> map, Class<T> clazz) {
-        return objectMapper.convertValue(map, clazz);
+    private static double priceOf(MarketProduct listing) {
+        return listing.getPrice() != null ? listing.getPrice() : Double.MAX_VALUE;
     }
 }
 
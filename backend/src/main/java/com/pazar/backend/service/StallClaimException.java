@@ -0,0 +1,18 @@
+package com.pazar.backend.service;
+
+/** A stall claim that cannot be carried out; {@link Reason} tells the caller why. */
+public class StallClaimException extends RuntimeException {
+
+    public enum Reason { INVALID_REQUEST, MARKET_NOT_FOUND, PRODUCT_NOT_FOUND, IDEMPOTENCY_CONFLICT, STALL_TAKEN }
+
+    private final Reason reason;
+
+    public StallClaimException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
@@ -0,0 +1,283 @@
+package com.pazar.backend.service;
+
+import com.pazar.backend.dto.ProductRequest;
+import com.pazar.backend.dto.StallClaimRequest;
+import com.pazar.backend.dto.StallClaimResponse;
+import com.pazar.backend.entity.mongo.Market;
+import com.pazar.backend.entity.mongo.MarketProduct;
+import com.pazar.backend.entity.mongo.Product;
+import com.pazar.backend.entity.mongo.Stall;
+import com.pazar.backend.entity.mongo.StallClaim;
+import com.pazar.backend.service.StallClaimException.Reason;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuple2;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Seller stall claims: optional new product, the stall and the listing, as one idempotent operation.
+ *
+ * The deployment runs a standalone Mongo, so there are no multi-document transactions, and a bulk
+ * write is limited to one collection. Instead the first write stores a claim record under the client's
+ * idempotency key that fixes every id (product, listing, stall number). The remaining writes are
+ * insert-if-absent upserts of documents with those ids. Writes that do not depend on each other are
+ * sent side by side, so a claim costs five round trips of latency: the market and product checks, the
+ * claim record lookup and insert, the product and the stall, then the listing and the market's new
+ * layout version. A listing therefore never exists without its stall, and the version is never
+ * stamped before the stall is stored. A retry with the same key after a failure at any point completes the missing writes; a
+ * retry after success writes nothing and never overwrites later changes (e.g. a price update). Claim
+ * records expire after a day.
+ *
+ * A stall number can already be taken by a stall created some other way (e.g. by an admin). The claim
+ * then moves to a newly allocated number instead of attaching its listing to that stall.
+ */
+@Service
+public class StallClaimService {
+
+    /** Newly allocated numbers tried when the claim's stall number is taken by another stall. */
+    private static final int STALL_NUMBER_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+    private final Scheduler blockingScheduler;
+    private final IdGenerator idGenerator;
+    private final StallNumberAllocator stallNumberAllocator;
+    private final MarketStallIndex marketStallIndex;
+    private final ProductSearchIndex productSearchIndex;
+    private final MarketPriceBook marketPriceBook;
+    private final MarketStatistics marketStatistics;
+    private final MarketEventHub marketEventHub;
+    private final PriceHistoryService priceHistoryService;
+
+    public StallClaimService(MongoTemplate mongoTemplate,
+                             Scheduler blockingScheduler,
+                             IdGenerator idGenerator,
+                             StallNumberAllocator stallNumberAllocator,
+                             MarketStallIndex marketStallIndex,
+                             ProductSearchIndex productSearchIndex,
+                             MarketPriceBook marketPriceBook,
+                             MarketStatistics marketStatistics,
+                             MarketEventHub marketEventHub,
+                             PriceHistoryService priceHistoryService) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockingScheduler = blockingScheduler;
+        this.idGenerator = idGenerator;
+        this.stallNumberAllocator = stallNumberAllocator;
+        this.marketStallIndex = marketStallIndex;
+        this.productSearchIndex = productSearchIndex;
+        this.marketPriceBook = marketPriceBook;
+        this.marketStatistics = marketStatistics;
+        this.marketEventHub = marketEventHub;
+        this.priceHistoryService = priceHistoryService;
+    }
+
+    /**
+     * {@code idempotencyKey} may be null, the claim is then not protected against retries.
+     * {@code sellerEmail} becomes the owner of the listing, the only seller allowed to change its price.
+     */
+    public StallClaimResponse claim(StallClaimRequest request, String idempotencyKey, String sellerEmail) {
+        validate(request);
+        String marketId = request.marketId();
+        String productId = request.productData().id();
+        // Checked in Mongo, not in the search index, which misses products created on other instances
+        Tuple2<Boolean, Boolean> found = together(
+                () -> mongoTemplate.exists(query(where("_id").is(marketId)), Market.class),
+                () -> productId == null || mongoTemplate.exists(query(where("_id").is(productId)), Product.class));
+        if (!found.getT1()) {
+            throw new StallClaimException(Reason.MARKET_NOT_FOUND, "Market " + marketId + " does not exist");
+        }
+        if (!found.getT2()) {
+            throw new StallClaimException(Reason.PRODUCT_NOT_FOUND, "Product " + productId + " does not exist");
+        }
+
+        String key = idempotencyKey != null ? idempotencyKey : idGenerator.nextId("claim_");
+        String fingerprint = fingerprint(request, sellerEmail);
+        String listingId = idGenerator.nextId("lst_");
+        StallClaim opened = open(key, request, fingerprint, listingId);
+        boolean replayed = !opened.getListingId().equals(listingId);
+        if (replayed && !opened.getFingerprint().equals(fingerprint)) {
+            throw new StallClaimException(Reason.IDEMPOTENCY_CONFLICT,
+                    "Idempotency key " + key + " was already used for a different claim");
+        }
+
+        Product product = opened.isNewProduct() ? request.productData().toEntity() : null;
+        if (product != null) product.setId(opened.getProductId());
+        Stall firstStall = stall(request, opened.getStallNumber());
+        Tuple2<Boolean, Boolean> inserted = together(
+                () -> product != null && insertIfAbsent(product.getId(), product),
+                () -> insertIfAbsent(firstStall.getId(), firstStall));
+        if (inserted.getT1()) {
+            productSearchIndex.index(product);
+            marketStatistics.productCreated(product.getId());
+        }
+
+        StallClaim claim = opened;
+        Stall stall = firstStall;
+        boolean stallAdded = inserted.getT2();
+        for (int attempt = 0; !stallAdded && !isSameStall(stall); attempt++) {
+            if (attempt == STALL_NUMBER_ATTEMPTS) {
+                throw new StallClaimException(Reason.STALL_TAKEN,
+                        "Stall " + stall.getStallId() + " in market " + marketId + " belongs to another seller");
+            }
+            claim = moveStall(key, claim, stallNumberAllocator.next(marketId));
+            stall = stall(request, claim.getStallNumber());
+            stallAdded = insertIfAbsent(stall.getId(), stall);
+        }
+
+        MarketProduct listing = new MarketProduct();
+        listing.setId(claim.getListingId());
+        listing.setMarketId(marketId);
+        listing.setProductId(claim.getProductId());
+        listing.setPrice(request.price());
+        listing.setStallNumber(claim.getStallNumber());
+        listing.setX(request.position().x());
+        listing.setY(request.position().y());
+        listing.setZ(stall.getZ().intValue());
+        listing.setVendorName(request.vendorName());
+        listing.setSellerEmail(sellerEmail);
+        boolean newStall = stallAdded;
+        // A retry stamps the version again, in case the failed attempt stored the stall but not the version
+        boolean stampVersion = newStall || replayed;
+        Tuple2<Boolean, Boolean> written = together(
+                () -> insertIfAbsent(listing.getId(), listing),
+                () -> {
+                    if (stampVersion) marketStallIndex.layoutChanged(marketId);
+                    return stampVersion;
+                });
+        if (newStall) {
+            marketStatistics.stallAdded(marketId, stall.getStallId());
+            marketEventHub.stallAdded(stall);
+        }
+        if (written.getT1()) {
+            marketPriceBook.listingAdded(listing);
+            marketStatistics.listingAdded(listing);
+            marketEventHub.listingAdded(listing);
+            priceHistoryService.listingAdded(listing);
+        }
+
+        return new StallClaimResponse(true, "Stall claimed and product added successfully",
+                claim.getStallNumber(), claim.getProductId(), claim.getListingId(), replayed);
+    }
+
+    private static void validate(StallClaimRequest request) {
+        String problem = null;
+        if (request.marketId() == null) problem = "marketId is required";
+        else if (request.productData() == null) problem = "productData is required";
+        else if (request.productData().id() == null && (request.productData().name() == null || request.productData().name().isBlank())) {
+            problem = "productData needs an existing product id or a name";
+        }
+        else if (request.position() == null || request.position().x() == null || request.position().y() == null) {
+            problem = "position with x and y is required";
+        }
+        else if (request.price() == null || !Double.isFinite(request.price()) || request.price() <= 0) {
+            problem = "price must be a positive number";
+        }
+        if (problem != null) throw new StallClaimException(Reason.INVALID_REQUEST, problem);
+    }
+
+    /**
+     * Returns the claim record stored for the key, or stores a new one in one findAndModify. A record
+     * carrying {@code listingId} is the one just created. The product id and stall number are only
+     * allocated when no record exists, so replays do not use up stall numbers.
+     */
+    private StallClaim open(String key, StallClaimRequest request, String fingerprint, String listingId) {
+        StallClaim existing = mongoTemplate.findById(key, StallClaim.class);
+        if (existing != null) return existing;
+        boolean newProduct = request.productData().id() == null;
+        Update update = new Update()
+                .setOnInsert("marketId", request.marketId())
+                .setOnInsert("fingerprint", fingerprint)
+                .setOnInsert("productId", newProduct ? idGenerator.nextId("prod_") : request.productData().id())
+                .setOnInsert("newProduct", newProduct)
+                .setOnInsert("listingId", listingId)
+                .setOnInsert("stallNumber", stallNumberAllocator.next(request.marketId()))
+                .setOnInsert("createdAt", Instant.now());
+        return mongoTemplate.findAndModify(query(where("_id").is(key)), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), StallClaim.class);
+    }
+
+    private static Stall stall(StallClaimRequest request, String stallNumber) {
+        StallClaimRequest.Position position = request.position();
+        return new Stall(request.marketId(), stallNumber, position.x().doubleValue(), position.y().doubleValue(),
+                position.z() != null ? position.z() : 0.0, request.productData().category(), request.vendorName());
+    }
+
+    /**
+     * Whether the stored stall with this id is the one this claim writes, i.e. stored by an earlier
+     * attempt of the same claim, rather than another seller's stall under the same number.
+     */
+    private boolean isSameStall(Stall stall) {
+        Stall stored = mongoTemplate.findById(stall.getId(), Stall.class);
+        return stored != null
+                && Objects.equals(stored.getX(), stall.getX())
+                && Objects.equals(stored.getY(), stall.getY())
+                && Objects.equals(stored.getVendorName(), stall.getVendorName());
+    }
+
+    /**
+     * Moves the claim record from its taken stall number to {@code stallNumber}. When a concurrent
+     * retry of the same claim has moved it already, its number is kept.
+     */
+    private StallClaim moveStall(String key, StallClaim claim, String stallNumber) {
+        StallClaim moved = mongoTemplate.findAndModify(
+                query(where("_id").is(key).and("stallNumber").is(claim.getStallNumber())),
+                new Update().set("stallNumber", stallNumber),
+                FindAndModifyOptions.options().returnNew(true), StallClaim.class);
+        return moved != null ? moved : mongoTemplate.findById(key, StallClaim.class);
+    }
+
+    /** Runs two independent blocking calls side by side and waits for both: one round trip of latency. */
+    private <A, B> Tuple2<A, B> together(Callable<A> first, Callable<B> second) {
+        return Mono.zip(Mono.fromCallable(first).subscribeOn(blockingScheduler),
+                        Mono.fromCallable(second).subscribeOn(blockingScheduler))
+                .block();
+    }
+
+    /** Inserts the entity unless a document with its id exists; {@code true} when it was inserted. */
+    private boolean insertIfAbsent(String id, Object entity) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(entity, document);
+        Update update = new Update();
+        document.forEach((field, value) -> {
+            if (!"_id".equals(field)) update.setOnInsert(field, value);
+        });
+        return mongoTemplate.upsert(query(where("_id").is(id)), update, entity.getClass()).getUpsertedId() != null;
+    }
+
+    /**
+     * Hash of the fields that define the claim, listed explicitly so that a field added to the request
+     * does not change the fingerprints of retries. The seller is part of it, so another seller's key is
+     * a conflict rather than a replay of their listing.
+     */
+    private static String fingerprint(StallClaimRequest request, String sellerEmail) {
+        ProductRequest product = request.productData();
+        StallClaimRequest.Position position = request.position();
+        String fields = Stream.of(sellerEmail, request.marketId(),
+                        product.id(), product.name(), product.category(), product.unit(), product.freshness(),
+                        position.x(), position.y(), position.z(), request.vendorName(), request.price())
+                .map(String::valueOf)
+                .collect(Collectors.joining("\u0000"));
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(fields.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.pazar.backend.service;
+
+import java.util.*;
+
+/**
+ * Immutable uniform grid over the stalls of one market, bucketed by x/y.
+ *
+ * Cells are stored in a compact CSR layout (cell start offsets into one array of stall indices),
+ * sized so that a cell holds a handful of stalls on average. Distances are Euclidean over x, y and z;
+ * since the x/y distance never exceeds it, the grid bound is safe for both radius and k-nearest search.
+ */
+public final class StallGrid {
+
+    private static final int TARGET_STALLS_PER_CELL = 4;
+
+    public record Stall(String id, double x, double y, double z, String type, String vendorName) {}
+
+    public record Hit(Stall stall, double distance) {}
+
+    private final Stall[] stalls;
+    private final Map<String, Stall> byId;
+    private final double minX;
+    private final double minY;
+    private final double cellSize;
+    private final int cols;
+    private final int rows;
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    public StallGrid(Collection<Stall> source) {
+        this.stalls = source.toArray(new Stall[0]);
+        this.byId = new HashMap<>(stalls.length * 2);
+        for (Stall stall : stalls) byId.putIfAbsent(stall.id(), stall);
+
+        double loX = Double.MAX_VALUE, loY = Double.MAX_VALUE, hiX = -Double.MAX_VALUE, hiY = -Double.MAX_VALUE;
+        for (Stall stall : stalls) {
+            loX = Math.min(loX, stall.x());
+            loY = Math.min(loY, stall.y());
+            hiX = Math.max(hiX, stall.x());
+            hiY = Math.max(hiY, stall.y());
+        }
+        if (stalls.length == 0) {
+            loX = loY = hiX = hiY = 0;
+        }
+        double width = Math.max(hiX - loX, 1);
+        double height = Math.max(hiY - loY, 1);
+        this.minX = loX;
+        this.minY = loY;
+        this.cellSize = Math.max(1, Math.sqrt(width * height * TARGET_STALLS_PER_CELL / Math.max(stalls.length, 1)));
+        this.cols = (int) (width / cellSize) + 1;
+        this.rows = (int) (height / cellSize) + 1;
+
+        // Counting sort of stall indices into cells
+        int[] cellOf = new int[stalls.length];
+        this.cellStart = new int[cols * rows + 1];
+        for (int i = 0; i < stalls.length; i++) {
+            cellOf[i] = cellIndex(col(stalls[i].x()), row(stalls[i].y()));
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < cols * rows; c++) cellStart[c + 1] += cellStart[c];
+        this.cellItems = new int[stalls.length];
+        int[] fill = Arrays.copyOf(cellStart, cols * rows);
+        for (int i = 0; i < stalls.length; i++) cellItems[fill[cellOf[i]]++] = i;
+    }
+
+    public int size() {
+        return stalls.length;
+    }
+
+    public Optional<Stall> get(String stallId) {
+        return Optional.ofNullable(byId.get(stallId));
+    }
+
+    public List<Stall> all() {
+        return List.of(stalls);
+    }
+
+    public List<Hit> withinRadius(double x, double y, double z, double radius, String type) {
+        List<Hit> hits = new ArrayList<>();
+        int c0 = col(x - radius), c1 = col(x + radius);
+        int r0 = row(y - radius), r1 = row(y + radius);
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = cellIndex(c, r);
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    Stall stall = stalls[cellItems[i]];
+                    if (!matches(stall, type)) continue;
+                    double d = distance(stall, x, y, z);
+                    if (d <= radius) hits.add(new Hit(stall, d));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distance));
+        return hits;
+    }
+
+    public List<Hit> nearest(double x, double y, double z, int k, String type) {
+        if (k <= 0 || stalls.length == 0) return List.of();
+        PriorityQueue<Hit> best = new PriorityQueue<>(k + 1, Comparator.comparingDouble(Hit::distance).reversed());
+        int cx = col(x), cy = row(y);
+        int maxRing = Math.max(cols, rows);
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = cy - ring; r <= cy + ring; r++) {
+                if (r < 0 || r >= rows) continue;
+                boolean edgeRow = r == cy - ring || r == cy + ring;
+                int step = edgeRow ? 1 : Math.max(1, 2 * ring);
+                for (int c = cx - ring; c <= cx + ring; c += step) {
+                    if (c < 0 || c >= cols) continue;
+                    int cell = cellIndex(c, r);
+                    for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                        Stall stall = stalls[cellItems[i]];
+                        if (!matches(stall, type)) continue;
+                        best.offer(new Hit(stall, distance(stall, x, y, z)));
+                        if (best.size() > k) best.poll();
+                    }
+                }
+            }
+            // Every cell beyond this ring is at least ring * cellSize away
+            if (best.size() == k && best.peek().distance() <= ring * cellSize) break;
+        }
+
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(Comparator.comparingDouble(Hit::distance));
+        return hits;
+    }
+
+    private static boolean matches(Stall stall, String type) {
+        return type == null || type.equalsIgnoreCase(stall.type());
+    }
+
+    private static double distance(Stall stall, double x, double y, double z) {
+        double dx = stall.x() - x, dy = stall.y() - y, dz = stall.z() - z;
+        return Math.sqrt(dx * dx + dy * dy + dz * dz);
+    }
+
+    private int col(double x) {
+        return clamp((int) Math.floor((x - minX) / cellSize), cols);
+    }
+
+    private int row(double y) {
+        return clamp((int) Math.floor((y - minY) / cellSize), rows);
+    }
+
+    private int cellIndex(int col, int row) {
+        return row * cols + col;
+    }
+
+    private static int clamp(int value, int size) {
+        return Math.max(0, Math.min(value, size - 1));
+    }
+}
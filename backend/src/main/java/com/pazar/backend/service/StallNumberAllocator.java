@@ -0,0 +1,76 @@
+package com.pazar.backend.service;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Per-market stall numbers that are unique across backend instances.
+ *
+ * Each instance reserves a block of numbers with one atomic {@code $inc} on the market's document in the
+ * {@code counters} collection and hands them out from memory, so Mongo is hit once per block rather than
+ * once per claim. Numbers increase per instance but may interleave between instances, and a restart
+ * leaves the rest of a reserved block unused. Numbering starts at 1001 so it never meets the
+ * {@code S-0..S-999} numbers of the old clock-based scheme.
+ */
+@Component
+public class StallNumberAllocator {
+
+    private static final String COLLECTION = "counters";
+    private static final long FIRST_NUMBER = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final int blockSize;
+    private final Map<String, Block> blocks = new ConcurrentHashMap<>();
+
+    public StallNumberAllocator(MongoTemplate mongoTemplate,
+                                @Value("${pazar.stall-number.block-size:100}") int blockSize) {
+        this.mongoTemplate = mongoTemplate;
+        this.blockSize = blockSize;
+    }
+
+    public String next(String marketId) {
+        return "S-" + (FIRST_NUMBER + nextNumber(marketId));
+    }
+
+    private long nextNumber(String marketId) {
+        Block block = blocks.computeIfAbsent(marketId, id -> reserve(id));
+        while (true) {
+            long number = block.next.getAndIncrement();
+            if (number <= block.last) return number;
+            // Block used up: one thread reserves the next one, the others retry on it
+            Block exhausted = block;
+            block = blocks.compute(marketId, (id, current) -> current == exhausted ? reserve(id) : current);
+        }
+    }
+
+    private Block reserve(String marketId) {
+        Document counter = mongoTemplate.findAndModify(
+                query(where("_id").is("stall:" + marketId)),
+                new Update().inc("value", blockSize),
+                FindAndModifyOptions.options().upsert(true).returnNew(true),
+                Document.class, COLLECTION);
+        long last = ((Number) counter.get("value")).longValue();
+        return new Block(last - blockSize + 1, last);
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long last;
+
+        Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}